@@ -0,0 +1,41 @@
+# Trains the on-device digit classifier and writes digits.tflite for app/src/main/assets.
+# Input [N, 28, 28, 1] floats with ink = 1 and paper = 0, the digit scaled to a 20 px box and
+# centred (the layout CellExtractor produces), output [N, 10] softmax scores.
+import tensorflow as tf
+
+(x_train, y_train), (x_test, y_test) = tf.keras.datasets.mnist.load_data()
+x_train = x_train[..., None].astype("float32") / 255.0
+x_test = x_test[..., None].astype("float32") / 255.0
+
+# Printed digits are heavier and less centred than handwriting
+augment = tf.keras.Sequential([
+    tf.keras.layers.RandomTranslation(0.08, 0.08),
+    tf.keras.layers.RandomRotation(0.04),
+    tf.keras.layers.RandomZoom(0.1),
+])
+
+model = tf.keras.Sequential([
+    tf.keras.layers.Input(shape=(28, 28, 1)),
+    augment,
+    tf.keras.layers.Conv2D(16, 3, activation="relu"),
+    tf.keras.layers.MaxPooling2D(),
+    tf.keras.layers.Conv2D(32, 3, activation="relu"),
+    tf.keras.layers.MaxPooling2D(),
+    tf.keras.layers.Flatten(),
+    tf.keras.layers.Dropout(0.25),
+    tf.keras.layers.Dense(64, activation="relu"),
+    tf.keras.layers.Dense(10, activation="softmax"),
+])
+
+model.compile(optimizer="adam", loss="sparse_categorical_crossentropy", metrics=["accuracy"])
+model.fit(x_train, y_train, epochs=6, batch_size=128, validation_data=(x_test, y_test))
+
+converter = tf.lite.TFLiteConverter.from_keras_model(model)
+converter.optimizations = [tf.lite.Optimize.DEFAULT]
+tflite_model = converter.convert()
+
+print("model converted")
+
+# Save the model.
+with open('digits.tflite', 'wb') as f:
+  f.write(tflite_model)
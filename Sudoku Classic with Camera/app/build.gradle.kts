@@ -60,6 +60,7 @@ android {
 
 dependencies {
 
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -71,6 +72,7 @@ dependencies {
     implementation("com.squareup.okio:okio:3.15.0") // For Base64 and file handling
     implementation("org.json:json:20250517")
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:5.1.0") // local stand-in for the Gemini endpoint
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -1,9 +0,0 @@
-package com.example.sudokuclassicwithcamera;
-
-public final class Constants {
-    private Constants() {} // Prevent instantiation
-
-    public static final int easy = 36;
-    public static final int medium = 45;
-    public static final int hard = 54;
-}
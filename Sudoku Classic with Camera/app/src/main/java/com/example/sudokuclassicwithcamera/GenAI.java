@@ -1,18 +1,30 @@
 package com.example.sudokuclassicwithcamera;
 
+import android.content.Context;
 import android.graphics.Bitmap;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Base64;
-
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.ByteArrayOutputStream;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.sudokuclassicwithcamera.core.GeminiResponseReader;
+import com.example.sudokuclassicwithcamera.core.MatrixParser;
+import com.example.sudokuclassicwithcamera.core.ScanCache;
+import com.example.sudokuclassicwithcamera.utils.GeminiRequestBody;
+import com.example.sudokuclassicwithcamera.utils.HttpClients;
+import com.example.sudokuclassicwithcamera.utils.ImagePreparer;
+import com.example.sudokuclassicwithcamera.utils.RequestScheduler;
+import com.example.sudokuclassicwithcamera.utils.RetryPolicy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -20,153 +32,210 @@ import okhttp3.Response;
 
 public class GenAI {
 
-    private static final OkHttpClient client = new OkHttpClient();
-    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final String TAG = "GenAI";
+
+    private static final OkHttpClient client = HttpClients.shared();
+    private static final int MAX_TEXT_CHARS = 16 * 1024; // a grid answer is a few hundred characters
     private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final int REQUEST_THREADS = 2;
+    private static final int REQUEST_QUEUE = 4;
+    private static final RequestScheduler<String> scheduler =
+            new RequestScheduler<>(REQUEST_THREADS, REQUEST_QUEUE, mainHandler::post);
+    // --A new photo only supersedes an older photo, a new cell read an older cell read
+    private static final String PHOTO_CHANNEL = "photo";
+    private static final String CELLS_CHANNEL = "cells";
+    private static final ExecutorService preparer = Executors.newSingleThreadExecutor(); // crops and encodes photos
+
+    private static final int CACHE_MEMORY_ENTRIES = 32;
+    private static final long CACHE_DISK_BYTES = 256 * 1024;
+    private static final long CACHE_TTL_MS = 7L * 24 * 60 * 60 * 1000; // a week
+    private static ScanCache cache;
+
+    /**
+     * Enables the scan result cache in the app's cache directory, safe to call more than once
+     */
+    public static synchronized void initCache(Context context) {
+        if (cache == null) {
+            File dir = new File(context.getApplicationContext().getCacheDir(), "scans");
+            cache = new ScanCache(dir, CACHE_MEMORY_ENTRIES, CACHE_DISK_BYTES, CACHE_TTL_MS);
+        }
+    }
+
+    /**
+     * The scan result cache with its hit/miss counters, null until initCache is called
+     */
+    public static synchronized ScanCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Opens the connection to the Gemini endpoint ahead of the first scan
+     */
+    public static void preconnect() {
+        HttpClients.preconnect(client, BuildConfig.GEMINI_URL);
+    }
 
     /**
-     * Async Gemini request with image + text
+     * Async Gemini request with image + text, see {@link #getGeminiResponse(LifecycleOwner, String, Bitmap, GenAIResponseCallback)}
      */
     public static void getGeminiResponse(String prompt, Bitmap imageBitmap, GenAIResponseCallback callback) {
-        executor.execute(() -> {
-            String result;
+        getGeminiResponse(null, prompt, imageBitmap, callback);
+    }
+
+    /**
+     * Async Gemini request with image + text. The photo is prepared off the main thread first and
+     * the request is keyed on the content hash of the prepared image, the same key the scan cache
+     * uses: a newer request cancels this one, the same image submitted again while this one runs
+     * shares its result, and the callback is dropped once the owner is destroyed.
+     */
+    public static void getGeminiResponse(LifecycleOwner owner, String prompt, Bitmap imageBitmap,
+                                         GenAIResponseCallback callback) {
+        preparer.execute(() -> {
+            byte[] jpeg;
             try {
-                // Convert image to Base64
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                imageBitmap.compress(Bitmap.CompressFormat.PNG, 100, baos);
-                byte[] imageBytes = baos.toByteArray();
-                String base64Image = Base64.encodeToString(imageBytes, Base64.NO_WRAP);
-
-                // Prepare JSON parts
-                JSONObject imagePart = new JSONObject();
-                imagePart.put("mimeType", "image/png");
-                imagePart.put("data", base64Image);
-
-                JSONObject imageContent = new JSONObject();
-                imageContent.put("inlineData", imagePart);
-
-                JSONObject textPart = new JSONObject();
-                textPart.put("text", prompt);
-
-                JSONArray parts = new JSONArray();
-                parts.put(textPart);
-                parts.put(imageContent);
-
-                JSONObject contentObj = new JSONObject();
-                contentObj.put("parts", parts);
-
-                JSONArray contents = new JSONArray();
-                contents.put(contentObj);
-
-                JSONObject requestBody = new JSONObject();
-                requestBody.put("contents", contents);
-
-                // Build request URL properly
-                String url = BuildConfig.GEMINI_URL + BuildConfig.GEMINI_MODEL +
-                        ":generateContent?key=" + BuildConfig.GEMINI_KEY;
-
-                Request request = new Request.Builder()
-                        .url(url)
-                        .post(RequestBody.create(requestBody.toString(), MediaType.get("application/json")))
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        String responseStr = response.body().string();
-                        result = extractTextFromGeminiResponse(responseStr);
-                    } else {
-                        result = "Error: " + response.code() + " - " + response.message();
-                    }
-                }
+                // Crop, downscale and JPEG-encode, the body streams it as Base64
+                jpeg = ImagePreparer.prepare(imageBitmap).bytes;
             } catch (Exception e) {
-                result = "Exception: " + e.getMessage();
-                e.printStackTrace();
+                Log.e(TAG, "Preparing the image failed", e);
+                mainHandler.post(() -> callback.onResponse("Exception: " + e.getMessage()));
+                return;
             }
-
-            // Return to UI thread
-            String finalResult = result;
-            mainHandler.post(() -> callback.onResponse(finalResult));
+            String key = ScanCache.keyOf(prompt.getBytes(StandardCharsets.UTF_8), jpeg);
+            mainHandler.post(() -> {
+                if (owner != null && owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) return;
+                submit(owner, PHOTO_CHANNEL, key, job -> request(job, prompt, jpeg, key), callback);
+            });
         });
     }
 
     /**
-     * Extracts the text output from Gemini JSON response
+     * Async Gemini request with an already encoded JPEG (e.g. a mosaic of single cells) + text,
+     * scheduled like the bitmap overload; the answer is not cached or parsed as a grid
      */
-    private static String extractTextFromGeminiResponse(String jsonResponse) {
-        try {
-            JSONObject root = new JSONObject(jsonResponse);
-            JSONArray candidates = root.optJSONArray("candidates");
-            if (candidates == null || candidates.length() == 0) return "NULL";
-
-            JSONObject firstCandidate = candidates.optJSONObject(0);
-            if (firstCandidate == null) return "NULL";
-
-            JSONObject content = firstCandidate.optJSONObject("content");
-            if (content == null) return "NULL";
-
-            JSONArray parts = content.optJSONArray("parts");
-            if (parts == null || parts.length() == 0) return "NULL";
-
-            JSONObject part = parts.optJSONObject(0);
-            if (part == null) return "NULL";
+    public static RequestScheduler<String>.Handle getGeminiResponse(LifecycleOwner owner, String prompt, byte[] jpeg,
+                                                                    GenAIResponseCallback callback) {
+        String key = ScanCache.keyOf(prompt.getBytes(StandardCharsets.UTF_8), jpeg);
+        return submit(owner, CELLS_CHANNEL, key, job -> {
+            try {
+                return send(job, prompt, jpeg, null);
+            } catch (Exception e) {
+                if (job.isCancelled()) return null;
+                return "Exception: " + e.getMessage();
+            }
+        }, callback);
+    }
 
-            String text = part.optString("text", "").trim();
-            if (text.isEmpty()) return "NULL";
+    private static RequestScheduler<String>.Handle submit(LifecycleOwner owner, String channel, String key,
+                                                          RequestScheduler.Task<String> task, GenAIResponseCallback callback) {
+        RequestScheduler<String>.Handle handle = scheduler.submit(channel, key, task,
+                new RequestScheduler.Callback<String>() {
+                    @Override
+                    public void onResult(String result) {
+                        callback.onResponse(result);
+                    }
 
-            // Gemini sometimes adds markdown or commentary — clean it
-            text = text.replace("```json", "")
-                    .replace("```", "")
-                    .trim();
+                    @Override
+                    public void onError(Exception e) {
+                        callback.onResponse("Exception: " + e.getMessage());
+                    }
+                });
+        Log.d(TAG, "Scheduled Gemini request: " + scheduler.getStats());
+
+        if (owner != null) {
+            owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+                @Override
+                public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                    if (event == Lifecycle.Event.ON_DESTROY) {
+                        handle.cancel();
+                        source.getLifecycle().removeObserver(this);
+                    }
+                }
+            });
+        }
+        return handle;
+    }
 
-            return text;
+    // --Runs on the scheduler pool, returns the response text or an "Error"/"Exception" message
+    private static String request(RequestScheduler.Job<String> job, String prompt, byte[] jpeg, String key) {
+        try {
+            // Same prompt and same prepared image: answer from the cache without the network
+            ScanCache scanCache = getCache();
+            if (scanCache != null) {
+                int[][] cached = scanCache.get(key);
+                if (cached != null) {
+                    Log.d(TAG, "Scan cache hit (" + scanCache.getHits() + " hits, " + scanCache.getMisses() + " misses)");
+                    return formatMatrix(cached);
+                }
+            }
+            return send(job, prompt, jpeg, scanCache != null ? key : null);
         } catch (Exception e) {
+            if (job.isCancelled()) return null; // nobody is listening any more
             e.printStackTrace();
-            return "NULL";
+            return "Exception: " + e.getMessage();
         }
     }
 
+    // --One generateContent call, a parsed grid is cached under cacheKey unless it is null
+    private static String send(RequestScheduler.Job<String> job, String prompt, byte[] jpeg, String cacheKey) throws Exception {
+        RequestBody body = new GeminiRequestBody(prompt, ImagePreparer.MIME_TYPE, jpeg);
 
-    /**
-     * Parses 9x9 Sudoku matrix from JSON text
-     */
-    public static int[][] parseMatrix(String response) {
-        try {
-            // Clean up Gemini response (remove unwanted parts)
-            String cleaned = response
-                    .replaceAll("[^\\[\\],0-9]", "") // keep only digits, commas, brackets
-                    .trim();
-
-            // Ensure valid JSON format — wrap in array if missing outer brackets
-            if (!cleaned.startsWith("[")) {
-                cleaned = "[" + cleaned;
-            }
-            if (!cleaned.endsWith("]")) {
-                cleaned = cleaned + "]";
-            }
+        // Build request URL properly
+        String url = BuildConfig.GEMINI_URL + BuildConfig.GEMINI_MODEL +
+                ":generateContent?key=" + BuildConfig.GEMINI_KEY;
 
-            // Parse as JSONArray
-            JSONArray outer = new JSONArray(cleaned);
-            int rows = outer.length();
-            int[][] matrix = new int[rows][9];
+        Request request = new Request.Builder()
+                .url(url)
+                .post(body)
+                .build();
 
-            for (int i = 0; i < rows; i++) {
-                JSONArray inner = outer.getJSONArray(i);
-                for (int j = 0; j < 9 && j < inner.length(); j++) {
-                    matrix[i][j] = inner.optInt(j, 0);
-                }
+        // A superseding request cancels the call in flight
+        try (Response response = RetryPolicy.DEFAULT.execute(client, request, call -> job.setOnCancel(call::cancel))) {
+            if (!response.isSuccessful() || response.body() == null) {
+                return "Error: " + response.code() + " - " + response.message();
             }
 
-            // Ensure valid Sudoku matrix
-            if (rows == 9 && matrix[0].length == 9) return matrix;
+            // Decoded while it streams in, reading stops once the text is found
+            String text = new GeminiResponseReader(response.body().charStream(), MAX_TEXT_CHARS).readText();
+            String result = text == null || text.trim().isEmpty() ? "NULL" : text.trim();
 
-            System.err.println("Invalid Sudoku size: " + rows + "x" + matrix[0].length);
-            return null;
+            if (cacheKey != null) {
+                int[][] matrix = parseMatrix(result);
+                if (matrix != null) getCache().put(cacheKey, matrix);
+            }
+            return result;
+        }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Failed to parse Gemini output: " + response);
+    /**
+     * 9x9 matrix in the JSON form Gemini answers with, so cached results take the same path
+     */
+    private static String formatMatrix(int[][] matrix) {
+        StringBuilder sb = new StringBuilder(200);
+        sb.append('[');
+        for (int r = 0; r < 9; r++) {
+            if (r > 0) sb.append(',');
+            sb.append('[');
+            for (int c = 0; c < 9; c++) {
+                if (c > 0) sb.append(',');
+                sb.append(matrix[r][c]);
+            }
+            sb.append(']');
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Parses the 9x9 Sudoku matrix out of the response text, null if there is none
+     */
+    public static int[][] parseMatrix(String response) {
+        MatrixParser.Result parsed = MatrixParser.parse(response);
+        if (!parsed.isSuccess()) {
+            Log.w(TAG, "Failed to parse Gemini output: " + parsed.getError() + " at offset " + parsed.getErrorOffset());
             return null;
         }
+
+        Log.d(TAG, "Parsed Gemini grid, confidence " + parsed.getConfidence());
+        return parsed.getGrid().toArray();
     }
 
 
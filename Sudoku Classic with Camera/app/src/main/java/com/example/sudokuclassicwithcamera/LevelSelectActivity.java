@@ -3,6 +3,8 @@ package com.example.sudokuclassicwithcamera;
 import android.content.Intent;
 import android.content.res.Configuration;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.widget.Button;
 
 import androidx.activity.EdgeToEdge;
@@ -11,8 +13,14 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.sudokuclassicwithcamera.core.GeneratedPuzzle;
+import com.example.sudokuclassicwithcamera.core.PuzzlePool;
+
 public class LevelSelectActivity extends AppCompatActivity {
 
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Button[] levelButtons;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -36,11 +44,15 @@ public class LevelSelectActivity extends AppCompatActivity {
                 break;
         }
 
+        // Make sure puzzles are being prepared while the user picks a level
+        PuzzlePool.shared().prefill();
+
         // Buttons
         Button bte = findViewById(R.id.buttoneasy);
         Button btm = findViewById(R.id.buttonmed);
         Button bth = findViewById(R.id.buttonhard);
 
+        levelButtons = new Button[]{bte, btm, bth};
         setupButton(bte, "easy");
         setupButton(btm, "medium");
         setupButton(bth, "hard");
@@ -48,9 +60,28 @@ public class LevelSelectActivity extends AppCompatActivity {
 
     private void setupButton(Button button, String difficulty) {
         button.setOnClickListener(v -> {
-            Intent intent = new Intent(this, RandomSudokuActivity.class);
-            intent.putExtra("difficulty", difficulty);
-            startActivity(intent);
+            // Block double taps while an empty pool generates in the background
+            setButtonsEnabled(false);
+            PuzzlePool.shared().take(difficulty, generated -> mainHandler.post(() -> {
+                setButtonsEnabled(true);
+                if (!isFinishing() && !isDestroyed()) startGame(difficulty, generated);
+            }));
         });
     }
+
+    // --Hand over a pre-generated puzzle and its solution
+    private void startGame(String difficulty, GeneratedPuzzle generated) {
+        Intent intent = new Intent(this, RandomSudokuActivity.class);
+        intent.putExtra("difficulty", difficulty);
+        intent.putExtra("puzzle", generated.getPuzzleGrid().toBytes());
+        intent.putExtra("solution", generated.getSolutionGrid().toBytes());
+        intent.putExtra("puzzleId", generated.getId());
+        startActivity(intent);
+    }
+
+    private void setButtonsEnabled(boolean enabled) {
+        for (Button button : levelButtons) {
+            button.setEnabled(enabled);
+        }
+    }
 }
\ No newline at end of file
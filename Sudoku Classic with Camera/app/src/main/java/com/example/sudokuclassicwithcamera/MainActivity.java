@@ -11,6 +11,8 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.sudokuclassicwithcamera.core.PuzzlePool;
+
 public class MainActivity extends AppCompatActivity {
 
     @Override
@@ -36,6 +38,9 @@ public class MainActivity extends AppCompatActivity {
                 break;
         }
 
+        // Start generating puzzles in the background before a level is picked
+        PuzzlePool.shared().prefill();
+
         // Buttons
         Button btplay = findViewById(R.id.buttonplay);
         Button btplay2 = findViewById(R.id.buttonplay2);
@@ -20,14 +20,21 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.sudokuclassicwithcamera.core.ConstraintState;
+import com.example.sudokuclassicwithcamera.core.SearchControl;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.utils.AsyncSolver;
+import com.example.sudokuclassicwithcamera.utils.CellButtons;
 import com.example.sudokuclassicwithcamera.utils.GridAndButtonUtils;
+import com.example.sudokuclassicwithcamera.utils.ImageLoader;
 import com.example.sudokuclassicwithcamera.utils.SudokuSolverUtils;
 
-import java.io.IOException;
+import java.io.File;
 
 public class ManualSudokuActivity extends AppCompatActivity {
 
@@ -36,9 +43,12 @@ public class ManualSudokuActivity extends AppCompatActivity {
     private static final int GALLERY_REQUEST_CODE = 100;
     private static final int CAMERA_PERMISSION_CODE = 200;
 
-    private int[][] userGrid = new int[9][9];
+    private final SudokuGrid userGrid = new SudokuGrid();
+    private final ConstraintState constraints = new ConstraintState(userGrid); // live conflicts of userGrid
     private Button lastClickedButton = null;
     private Bitmap img_bitmap;
+    private AsyncSolver.SolveHandle pendingSolve = null; // cancelled by any edit, its result would overwrite it
+    private CharSequence submitLabel; // Submit button text while it shows progress
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,6 +62,8 @@ public class ManualSudokuActivity extends AppCompatActivity {
         });
 
         initializeGame(savedInstanceState);
+        GenAI.initCache(this);
+        GenAI.preconnect();
         setupGridButtons();
         setupInputButtons();
         setupControlButtons();
@@ -61,25 +73,24 @@ public class ManualSudokuActivity extends AppCompatActivity {
 
     private void initializeGame(Bundle savedInstanceState) {
         if (savedInstanceState != null) {
-            userGrid = GridAndButtonUtils.unflattenGrid(savedInstanceState.getIntArray("userGrid"));
-            if (userGrid[0][0] != 0) {
+            userGrid.copyFrom(SudokuGrid.fromBytes(savedInstanceState.getByteArray("userGrid")));
+            if (userGrid.countEmpty() < SudokuGrid.CELLS) {
                 GridAndButtonUtils.setGridOutput(userGrid, this, "enable");
+                GridAndButtonUtils.refreshConflicts(constraints, this);
                 Log.d(TAG, "Manual game state restored");
             }
         }
     }
 
     private void setupGridButtons() {
-        for (int i = 1; i <= 89; i++) {
-            int resID = getResources().getIdentifier("button" + i, "id", getPackageName());
-            if (resID != 0) {
-                Button button = findViewById(resID);
-                if (button != null) {
-                    button.setOnClickListener(v -> {
-                        lastClickedButton = GridAndButtonUtils.handleSudokuDigits(button,
-                                ManualSudokuActivity.this, "ques", lastClickedButton);
-                    });
-                }
+        CellButtons cells = CellButtons.of(this);
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            Button button = cells.get(cell);
+            if (button != null) {
+                button.setOnClickListener(v -> {
+                    lastClickedButton = GridAndButtonUtils.handleSudokuDigits(button,
+                            ManualSudokuActivity.this, "ques", lastClickedButton);
+                });
             }
         }
     }
@@ -96,8 +107,9 @@ public class ManualSudokuActivity extends AppCompatActivity {
                             Toast.makeText(ManualSudokuActivity.this,
                                     "Please select a cell first", Toast.LENGTH_SHORT).show();
                         } else {
+                            cancelPendingSolve();
                             GridAndButtonUtils.handleInputsButton(button,
-                                    ManualSudokuActivity.this, lastClickedButton, userGrid);
+                                    ManualSudokuActivity.this, lastClickedButton, constraints);
                         }
                     });
                 }
@@ -110,7 +122,9 @@ public class ManualSudokuActivity extends AppCompatActivity {
         Button btr = findViewById(R.id.buttonr);
 
         btr.setOnClickListener(v -> {
+            cancelPendingSolve();
             GridAndButtonUtils.resetGrid(userGrid, this, lastClickedButton);
+            GridAndButtonUtils.refreshConflicts(constraints, this);
             lastClickedButton = null;
             Toast.makeText(this, "Grid cleared", Toast.LENGTH_SHORT).show();
         });
@@ -141,16 +155,39 @@ public class ManualSudokuActivity extends AppCompatActivity {
 
     private void solveManualSudoku() {
         try {
-            GridAndButtonUtils.getGridInput(userGrid, this);
-
-            if (SudokuSolverUtils.validateInput(userGrid, this)) {
-                int[][] tempGrid = GridAndButtonUtils.copyGrid(userGrid);
-                if (SudokuSolverUtils.solveSudoku(tempGrid)) {
-                    GridAndButtonUtils.setGridOutput(tempGrid, this, "enable");
-                    Toast.makeText(this, "Sudoku solved!", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(this, "No solution exists", Toast.LENGTH_SHORT).show();
-                }
+            // userGrid and its conflict state follow every edit, nothing to read back from the UI
+            if (SudokuSolverUtils.validateInput(constraints, this)) {
+                cancelPendingSolve();
+
+                // Solve off the main thread, showing progress on the Submit button
+                Button btsub = findViewById(R.id.buttons);
+                submitLabel = btsub.getText();
+                btsub.setEnabled(false);
+
+                pendingSolve = AsyncSolver.solve(userGrid, new AsyncSolver.SolveCallback() {
+                    @Override
+                    public void onProgress(long nodes) {
+                        btsub.setText("Solving " + nodes / 1000 + "k");
+                    }
+
+                    @Override
+                    public void onResult(SudokuGrid solution, SearchControl.Stop stop, long nodes) {
+                        pendingSolve = null;
+                        restoreSubmitButton();
+
+                        if (solution != null) {
+                            userGrid.copyFrom(solution);
+                            GridAndButtonUtils.setGridOutput(solution, ManualSudokuActivity.this, "enable");
+                            GridAndButtonUtils.refreshConflicts(constraints, ManualSudokuActivity.this);
+                            Toast.makeText(ManualSudokuActivity.this, "Sudoku solved!", Toast.LENGTH_SHORT).show();
+                        } else if (stop == SearchControl.Stop.NONE) {
+                            Toast.makeText(ManualSudokuActivity.this, "No solution exists", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Log.w(TAG, "Solver stopped early: " + stop + " after " + nodes + " nodes");
+                            Toast.makeText(ManualSudokuActivity.this, "Puzzle too complex to solve", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
             }
         } catch (Exception e) {
             Log.e(TAG, "Error solving manual Sudoku", e);
@@ -158,10 +195,31 @@ public class ManualSudokuActivity extends AppCompatActivity {
         }
     }
 
+    // --A cancelled solve never calls back, so its button is restored here
+    private void cancelPendingSolve() {
+        if (pendingSolve != null) {
+            pendingSolve.cancel();
+            pendingSolve = null;
+            restoreSubmitButton();
+        }
+    }
+
+    private void restoreSubmitButton() {
+        Button btsub = findViewById(R.id.buttons);
+        btsub.setText(submitLabel);
+        btsub.setEnabled(true);
+    }
+
+    // --Full-resolution capture into an app-owned file, the camera app writes it directly
     private void openCamera() {
         try {
             Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
             if (takePictureIntent.resolveActivity(getPackageManager()) != null) {
+                File file = getCaptureFile();
+                if (file.exists()) file.delete(); // an empty file afterwards means the camera app ignored the output
+                Uri output = FileProvider.getUriForFile(this, BuildConfig.APPLICATION_ID + ".fileprovider", file);
+                takePictureIntent.putExtra(MediaStore.EXTRA_OUTPUT, output);
+                takePictureIntent.addFlags(Intent.FLAG_GRANT_WRITE_URI_PERMISSION | Intent.FLAG_GRANT_READ_URI_PERMISSION);
                 startActivityForResult(takePictureIntent, CAMERA_REQUEST_CODE);
             } else {
                 Toast.makeText(this, "No camera app found", Toast.LENGTH_SHORT).show();
@@ -179,45 +237,93 @@ public class ManualSudokuActivity extends AppCompatActivity {
         if (resultCode == RESULT_OK) {
             img_bitmap = null;
 
-            try {
-                if (requestCode == GALLERY_REQUEST_CODE && data != null) {
-                    Uri selectedImageUri = data.getData();
-                    if (selectedImageUri != null) {
-                        img_bitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), selectedImageUri);
-                    }
-                } else if (requestCode == CAMERA_REQUEST_CODE && data != null) {
-                    Bundle extras = data.getExtras();
-                    if (extras != null) {
-                        img_bitmap = (Bitmap) extras.get("data");
-                    }
+            if (requestCode == GALLERY_REQUEST_CODE && data != null) {
+                Uri selectedImageUri = data.getData();
+                if (selectedImageUri != null) {
+                    loadImage(selectedImageUri);
+                    return;
+                }
+            } else if (requestCode == CAMERA_REQUEST_CODE) {
+                File file = getCaptureFile();
+                if (file.length() > 0) {
+                    loadImage(Uri.fromFile(file));
+                    return;
+                }
+                // Some camera apps ignore EXTRA_OUTPUT and only return a thumbnail
+                Bundle extras = data != null ? data.getExtras() : null;
+                if (extras != null) {
+                    img_bitmap = (Bitmap) extras.get("data");
                 }
-            } catch (IOException e) {
-                Log.e(TAG, "Error loading image", e);
-                Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
-                return;
             }
 
             if (img_bitmap != null) {
-                processImageWithGemini();
+                processImage();
             } else {
                 Toast.makeText(this, "Failed to capture image", Toast.LENGTH_SHORT).show();
             }
         }
     }
 
+    // --Single reused file, each capture overwrites the previous one
+    private File getCaptureFile() {
+        File dir = new File(getCacheDir(), "captures");
+        if (!dir.isDirectory()) dir.mkdirs();
+        return new File(dir, "capture.jpg");
+    }
+
+    // --Decode off the main thread, only the grid region at the resolution recognition needs
+    private void loadImage(Uri uri) {
+        ImageLoader.load(this, uri, (bitmap, elapsedMillis) -> {
+            if (isFinishing() || isDestroyed()) return;
+            if (bitmap == null) {
+                Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            Log.d(TAG, "Image decoded in " + elapsedMillis + " ms");
+            img_bitmap = bitmap;
+            processImage();
+        });
+    }
+
+    // --Route the scan through RecognitionRouter, Gemini gets the whole photo only when the cheaper routes fail
+    private void processImage() {
+        // Copy only when needed, a second full-size bitmap is the biggest allocation of a scan
+        if (img_bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            img_bitmap = img_bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        }
+
+        // Reset Sudoku grid before processing, a solve of the old grid must not land on the new one
+        cancelPendingSolve();
+        GridAndButtonUtils.resetGrid(userGrid, this, lastClickedButton);
+        GridAndButtonUtils.refreshConflicts(constraints, this);
+        lastClickedButton = null;
+
+        // Local scan, remote reads of uncertain cells only, and the whole photo as the last resort
+        RecognitionRouter.recognize(this, this, img_bitmap, matrix -> {
+            if (isFinishing() || isDestroyed()) return;
+            if (matrix != null) {
+                showExtractedGrid(matrix);
+            } else {
+                processImageWithGemini();
+            }
+        });
+    }
+
+    private void showExtractedGrid(int[][] matrix) {
+        userGrid.copyFrom(SudokuGrid.fromArray(matrix));
+        GridAndButtonUtils.setGridOutput(userGrid, this, "enable");
+        GridAndButtonUtils.refreshConflicts(constraints, this);
+        Toast.makeText(this, "Sudoku grid extracted successfully!", Toast.LENGTH_SHORT).show();
+    }
+
     private void processImageWithGemini() {
         try {
             System.out.println("Got Image");
-            img_bitmap = img_bitmap.copy(Bitmap.Config.ARGB_8888, true);
-
-            // Reset Sudoku grid before processing
-            GridAndButtonUtils.resetGrid(userGrid, this, lastClickedButton);
-            lastClickedButton = null;
 
             Toast.makeText(this, "Processing image with Gemini...", Toast.LENGTH_SHORT).show();
 
             // Process image with Gemini
-            GenAI.getGeminiResponse(sudoku_prompt, img_bitmap, new GenAI.GenAIResponseCallback() {
+            GenAI.getGeminiResponse(this, sudoku_prompt, img_bitmap, new GenAI.GenAIResponseCallback() {
                 @Override
                 public void onResponse(String result) {
                     System.out.println("Gemini Response: " + result);
@@ -225,8 +331,7 @@ public class ManualSudokuActivity extends AppCompatActivity {
                     if (result == null || result.trim().isEmpty() ||
                             result.equalsIgnoreCase("NULL") ||
                             result.contains("Error") ||
-                            result.contains("Exception") ||
-                            !result.trim().startsWith("[[")) {
+                            result.contains("Exception")) {
 
                         runOnUiThread(() -> Toast.makeText(
                                 ManualSudokuActivity.this,
@@ -238,11 +343,7 @@ public class ManualSudokuActivity extends AppCompatActivity {
 
                     int[][] matrix = GenAI.parseMatrix(result);
                     if (matrix != null) {
-                        runOnUiThread(() -> {
-                            userGrid = GridAndButtonUtils.copyGrid(matrix);
-                            GridAndButtonUtils.setGridOutput(matrix, ManualSudokuActivity.this, "enable");
-                            Toast.makeText(ManualSudokuActivity.this, "Sudoku grid extracted successfully!", Toast.LENGTH_SHORT).show();
-                        });
+                        runOnUiThread(() -> showExtractedGrid(matrix));
                     } else {
                         runOnUiThread(() -> Toast.makeText(
                                 ManualSudokuActivity.this,
@@ -273,7 +374,7 @@ public class ManualSudokuActivity extends AppCompatActivity {
     @Override
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
-        outState.putIntArray("userGrid", GridAndButtonUtils.flattenGrid(userGrid));
+        outState.putByteArray("userGrid", userGrid.toBytes());
         Log.d(TAG, "Manual game state saved");
     }
 
@@ -282,4 +383,10 @@ public class ManualSudokuActivity extends AppCompatActivity {
         super.onRestoreInstanceState(savedInstanceState);
         Log.d(TAG, "Manual game state restored");
     }
+
+    @Override
+    protected void onDestroy() {
+        cancelPendingSolve();
+        super.onDestroy();
+    }
 }
\ No newline at end of file
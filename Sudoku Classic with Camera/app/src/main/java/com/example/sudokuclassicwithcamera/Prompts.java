@@ -20,4 +20,15 @@ public class Prompts {
     
             NOTE: Only return matrix, nothing else. If sudoku is not found in image, return **NULL**.
             """;
+
+    // Format with the number of cells in the image
+    public static final String cells_prompt = """
+            Attached image shows %d cells cut from a printed sudoku, in rows of up to 9, separated by white gaps.
+            Read them left to right, top to bottom, and return the digit in each cell as a list. If a cell is empty, return 0.
+
+            For example, for 4 cells:
+            [5,0,8,1]
+
+            NOTE: Only return the list with exactly %d digits, nothing else.
+            """;
 }
@@ -1,6 +1,8 @@
 package com.example.sudokuclassicwithcamera;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.widget.Button;
 import android.widget.Toast;
@@ -11,17 +13,37 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.sudokuclassicwithcamera.core.Hint;
+import com.example.sudokuclassicwithcamera.core.HintEngine;
+import com.example.sudokuclassicwithcamera.core.ParallelPuzzleGenerator;
+import com.example.sudokuclassicwithcamera.core.PencilMarks;
+import com.example.sudokuclassicwithcamera.core.PuzzleId;
+import com.example.sudokuclassicwithcamera.core.PuzzlePool;
+import com.example.sudokuclassicwithcamera.core.ConstraintState;
+import com.example.sudokuclassicwithcamera.core.SearchControl;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.utils.AsyncSolver;
+import com.example.sudokuclassicwithcamera.utils.CellButtons;
 import com.example.sudokuclassicwithcamera.utils.GridAndButtonUtils;
+import com.example.sudokuclassicwithcamera.utils.GridRenderer;
 import com.example.sudokuclassicwithcamera.utils.SudokuSolverUtils;
 
 public class RandomSudokuActivity extends AppCompatActivity {
 
     private static final String TAG = "RandomSudokuActivity";
-
-    private int[][] userGrid = new int[9][9];
-    private int[][] genGrid = new int[9][9];
-    private int[][] solutionGrid = new int[9][9];
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final SudokuGrid userGrid = new SudokuGrid();
+    private final ConstraintState constraints = new ConstraintState(userGrid); // live conflicts of userGrid
+    private final HintEngine hints = new HintEngine(); // keeps its candidates between hints
+    private final PencilMarks marks = new PencilMarks();
+    private boolean notesMode = false; // digit buttons toggle pencil marks instead of placing
+    private SudokuGrid genGrid = new SudokuGrid();
+    private SudokuGrid solutionGrid = new SudokuGrid();
+    private String puzzleId = null;
     private Button lastClickedButton = null;
+    private AsyncSolver.SolveHandle pendingSolve = null; // cancelled by any edit, its result would overwrite it
+    private CharSequence solveLabel; // Solve button text while it shows progress
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,10 +61,12 @@ public class RandomSudokuActivity extends AppCompatActivity {
         setupInputButtons();
         setupControlButtons();
 
-        // Validate button mapping
-        GridAndButtonUtils.testCoordinateCalculation();
+        // Validate button mapping, the full dumps only in debug builds
+        if (BuildConfig.DEBUG) {
+            GridAndButtonUtils.testCoordinateCalculation();
+            GridAndButtonUtils.debugFullButtonMapping(this);
+        }
         boolean allValid = GridAndButtonUtils.validateAllButtons(this);
-        GridAndButtonUtils.debugFullButtonMapping(this);
 
         if (!allValid) {
             Log.e(TAG, "WARNING: Not all buttons are properly mapped!");
@@ -54,14 +78,18 @@ public class RandomSudokuActivity extends AppCompatActivity {
     private void initializeGame(Bundle savedInstanceState) {
         // Restore state if available
         if (savedInstanceState != null) {
-            userGrid = GridAndButtonUtils.unflattenGrid(savedInstanceState.getIntArray("userGrid"));
-            genGrid = GridAndButtonUtils.unflattenGrid(savedInstanceState.getIntArray("genGrid"));
-            solutionGrid = GridAndButtonUtils.unflattenGrid(savedInstanceState.getIntArray("solutionGrid"));
-
-            if (genGrid[0][0] != 0) {
-                // Restore UI state
-                GridAndButtonUtils.setGridOutput(genGrid, this, "disable");
-                GridAndButtonUtils.setGridOutput(userGrid, this, "enable");
+            userGrid.copyFrom(SudokuGrid.fromBytes(savedInstanceState.getByteArray("userGrid")));
+            genGrid = SudokuGrid.fromBytes(savedInstanceState.getByteArray("genGrid"));
+            solutionGrid = SudokuGrid.fromBytes(savedInstanceState.getByteArray("solutionGrid"));
+            puzzleId = savedInstanceState.getString("puzzleId");
+            marks.copyFrom(savedInstanceState.getShortArray("marks"));
+            notesMode = savedInstanceState.getBoolean("notesMode");
+
+            if (genGrid.countEmpty() < SudokuGrid.CELLS) {
+                // Restore UI state in one render, givens stay locked
+                GridAndButtonUtils.setGridOutput(userGrid, genGrid, this);
+                GridAndButtonUtils.refreshConflicts(constraints, this);
+                GridRenderer.of(this).showMarks(marks);
                 Log.d(TAG, "Game state restored");
                 return;
             }
@@ -77,40 +105,62 @@ public class RandomSudokuActivity extends AppCompatActivity {
 
     private void generateNewSudoku(String difficulty) {
         try {
-            genGrid = SudokuSolverUtils.generateRandomSudoku(difficulty);
-            solutionGrid = GridAndButtonUtils.copyGrid(genGrid);
-
-            // Ensure we have the solution
-            if (!SudokuSolverUtils.solveSudoku(solutionGrid)) {
-                Log.e(TAG, "Failed to solve generated puzzle!");
-                Toast.makeText(this, "Error generating puzzle", Toast.LENGTH_SHORT).show();
+            // Prefer the puzzle handed over by LevelSelectActivity, then a shared puzzle ID,
+            // else take one from the pool, both generated off the UI thread
+            byte[] puzzle = getIntent().getByteArrayExtra("puzzle");
+            byte[] solution = getIntent().getByteArrayExtra("solution");
+            String requestedId = getIntent().getStringExtra("puzzleId");
+            if (puzzle != null && solution != null) {
+                showNewGame(SudokuGrid.fromBytes(puzzle), SudokuGrid.fromBytes(solution), requestedId);
                 return;
             }
-
-            // Reset user grid to initial puzzle
-            userGrid = GridAndButtonUtils.copyGrid(genGrid);
-
-            // Update UI
-            GridAndButtonUtils.setGridOutput(genGrid, this, "disable");
-            Log.d(TAG, "New game generated successfully");
+            PuzzlePool.Callback callback = generated -> mainHandler.post(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                showNewGame(generated.getPuzzleGrid(), generated.getSolutionGrid(), generated.getId());
+            });
+            if (requestedId != null && PuzzleId.isValid(requestedId)) {
+                PuzzlePool.shared().fromId(requestedId, callback);
+            } else {
+                PuzzlePool.shared().take(difficulty, callback);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error generating Sudoku", e);
             Toast.makeText(this, "Error generating puzzle", Toast.LENGTH_SHORT).show();
         }
     }
 
+    // --Reset the board to a freshly generated puzzle, on the UI thread
+    private void showNewGame(SudokuGrid puzzle, SudokuGrid solution, String id) {
+        cancelPendingSolve();
+        genGrid = puzzle;
+        solutionGrid = solution;
+        puzzleId = id;
+        Log.d(TAG, "Puzzle ID: " + puzzleId);
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Generator times:\n" + ParallelPuzzleGenerator.shared().metrics().report());
+        }
+
+        // Reset user grid to initial puzzle
+        userGrid.copyFrom(genGrid);
+        constraints.reload();
+        hints.reset();
+        marks.clearAll();
+
+        // Update UI
+        GridAndButtonUtils.setGridOutput(genGrid, this, "disable");
+        Log.d(TAG, "New game generated successfully");
+    }
+
     private void setupGridButtons() {
-        for (int i = 1; i <= 89; i++) {
-            int resID = getResources().getIdentifier("button" + i, "id", getPackageName());
-            if (resID != 0) {
-                Button button = findViewById(resID);
-                if (button != null) {
-                    final int buttonNum = i;
-                    button.setOnClickListener(v -> {
-                        lastClickedButton = GridAndButtonUtils.handleSudokuDigits(button,
-                                RandomSudokuActivity.this, "ans", lastClickedButton);
-                    });
-                }
+        CellButtons cells = CellButtons.of(this);
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            Button button = cells.get(cell);
+            if (button != null) {
+                button.setOnClickListener(v -> {
+                    GridRenderer.of(RandomSudokuActivity.this).clearHint();
+                    lastClickedButton = GridAndButtonUtils.handleSudokuDigits(button,
+                            RandomSudokuActivity.this, "ans", lastClickedButton);
+                });
             }
         }
     }
@@ -118,6 +168,7 @@ public class RandomSudokuActivity extends AppCompatActivity {
     private void setupInputButtons() {
         for (char c = 'a'; c <= 'j'; c++) {
             String buttonId = "button" + c;
+            int digit = c - 'a' + 1; // buttona-buttoni are 1-9, buttonj (X) clears
             int resID = getResources().getIdentifier(buttonId, "id", getPackageName());
             if (resID != 0) {
                 Button button = findViewById(resID);
@@ -126,9 +177,19 @@ public class RandomSudokuActivity extends AppCompatActivity {
                         if (lastClickedButton == null) {
                             Toast.makeText(RandomSudokuActivity.this,
                                     "Please select a cell first", Toast.LENGTH_SHORT).show();
+                        } else if (notesMode) {
+                            cancelPendingSolve();
+                            toggleNote(digit);
                         } else {
+                            cancelPendingSolve();
                             GridAndButtonUtils.handleInputsButton(button,
-                                    RandomSudokuActivity.this, lastClickedButton, userGrid);
+                                    RandomSudokuActivity.this, lastClickedButton, constraints);
+                            int cell = CellButtons.cellOf(lastClickedButton);
+                            if (cell >= 0) {
+                                // A placed digit leaves the notes of its row, column and box
+                                marks.place(cell, userGrid.get(cell));
+                                GridRenderer.of(RandomSudokuActivity.this).showMarks(marks, cell);
+                            }
                         }
                     });
                 }
@@ -140,6 +201,9 @@ public class RandomSudokuActivity extends AppCompatActivity {
         Button btsub = findViewById(R.id.buttons);
         Button btr = findViewById(R.id.buttonr);
         Button btsolve = findViewById(R.id.buttonsolve);
+        Button bthint = findViewById(R.id.buttonhint);
+        Button btnotes = findViewById(R.id.buttonnotes);
+        Button btfill = findViewById(R.id.buttonfillnotes);
 
         // Submit Button - Check solution
         btsub.setOnClickListener(v -> checkSolution());
@@ -149,15 +213,49 @@ public class RandomSudokuActivity extends AppCompatActivity {
 
         // Solve Button
         btsolve.setOnClickListener(v -> solveCurrentPuzzle());
+
+        // Hint Button
+        bthint.setOnClickListener(v -> showHint());
+
+        // Notes Button - digit buttons switch between placing and pencil marks
+        btnotes.setText(notesMode ? "Notes: on" : "Notes: off");
+        btnotes.setOnClickListener(v -> {
+            notesMode = !notesMode;
+            btnotes.setText(notesMode ? "Notes: on" : "Notes: off");
+        });
+
+        // Fill Notes Button
+        btfill.setOnClickListener(v -> fillNotes());
+    }
+
+    // --Toggle a pencil mark in the selected empty cell, X clears its marks
+    private void toggleNote(int digit) {
+        int cell = CellButtons.cellOf(lastClickedButton);
+        if (cell < 0) return;
+        if (userGrid.get(cell) != 0) {
+            Toast.makeText(this, "Clear the cell to add notes", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        if (digit > 9) marks.clear(cell);
+        else marks.toggle(cell, digit);
+        GridRenderer.of(this).showMarks(marks, cell);
+    }
+
+    // --Mark every candidate of every empty cell, computed from the grid's unit masks
+    private void fillNotes() {
+        cancelPendingSolve();
+        long start = System.nanoTime();
+        marks.fillAll(userGrid);
+        Log.d(TAG, "Filled notes in " + (System.nanoTime() - start) / 1000 + " us");
+        GridRenderer.of(this).showMarks(marks);
     }
 
     private void checkSolution() {
         try {
-            // Update userGrid from UI
-            GridAndButtonUtils.getGridInput(userGrid, this);
-
-            if (GridAndButtonUtils.noZeroInGrid(userGrid)) {
-                if (SudokuSolverUtils.validateInput(userGrid, this)) {
+            // userGrid and its conflict state follow every edit, nothing to read back from the UI
+            if (constraints.isFull()) {
+                if (SudokuSolverUtils.validateInput(constraints, this)) {
                     if (GridAndButtonUtils.compareGrid(userGrid, solutionGrid)) {
                         Toast.makeText(this, "Congratulations! You solved it!", Toast.LENGTH_LONG).show();
                     } else {
@@ -176,8 +274,13 @@ public class RandomSudokuActivity extends AppCompatActivity {
     private void resetGame() {
         try {
             // Reset to original generated puzzle
-            userGrid = GridAndButtonUtils.copyGrid(genGrid);
+            cancelPendingSolve();
+            userGrid.copyFrom(genGrid);
             GridAndButtonUtils.setGridOutput(genGrid, this, "disable");
+            GridAndButtonUtils.refreshConflicts(constraints, this);
+            GridRenderer.of(this).clearHint();
+            marks.clearAll();
+            GridRenderer.of(this).showMarks(marks);
             lastClickedButton = null;
             Toast.makeText(this, "Game reset", Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
@@ -185,19 +288,95 @@ public class RandomSudokuActivity extends AppCompatActivity {
         }
     }
 
+    // --Fill in the next digit a person could deduce and shade the cells that explain it.
+    // --The engine keeps its candidates between calls, so a hint costs microseconds and runs inline.
+    private void showHint() {
+        try {
+            if (constraints.isSolved()) {
+                Toast.makeText(this, "Puzzle already solved", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (!SudokuSolverUtils.validateInput(constraints, this)) return;
+            cancelPendingSolve();
+
+            // Deductions from a wrong digit would be wrong too, point at it first
+            GridRenderer renderer = GridRenderer.of(this);
+            CellButtons cells = CellButtons.of(this);
+            for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+                if (userGrid.get(cell) != 0 && userGrid.get(cell) != solutionGrid.get(cell)) {
+                    renderer.clearHint();
+                    if (cells.get(cell) != null) {
+                        lastClickedButton = GridAndButtonUtils.handleSudokuDigits(cells.get(cell), this, "ans", lastClickedButton);
+                    }
+                    Toast.makeText(this, "Check row " + (SudokuGrid.rowOf(cell) + 1) + ", column "
+                            + (SudokuGrid.colOf(cell) + 1), Toast.LENGTH_SHORT).show();
+                    return;
+                }
+            }
+
+            long start = System.nanoTime();
+            Hint hint = hints.next(userGrid);
+            Log.d(TAG, "Hint in " + (System.nanoTime() - start) / 1000 + " us: " + hint);
+            if (hint == null) {
+                Toast.makeText(this, "No logical step found, try the solver", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            renderer.showHint(hint.getSupport());
+            Button target = cells.get(hint.getCell());
+            if (target != null) {
+                lastClickedButton = GridAndButtonUtils.handleSudokuDigits(target, this, "ans", lastClickedButton);
+            }
+            constraints.set(hint.getCell(), hint.getDigit());
+            marks.place(hint.getCell(), hint.getDigit());
+            renderer.setCell(hint.getCell(), hint.getDigit());
+            renderer.showConflicts(constraints, hint.getCell());
+            renderer.showMarks(marks, hint.getCell());
+            Toast.makeText(this, hint.toString(), Toast.LENGTH_SHORT).show();
+        } catch (Exception e) {
+            Log.e(TAG, "Error finding hint", e);
+            Toast.makeText(this, "Error finding hint", Toast.LENGTH_SHORT).show();
+        }
+    }
+
     private void solveCurrentPuzzle() {
         try {
             Log.d(TAG, "=== SOLVER DEBUG START ===");
 
-            int[][] tempGrid = GridAndButtonUtils.copyGrid(userGrid);
+            if (SudokuSolverUtils.validateInput(constraints, this)) {
+                cancelPendingSolve();
 
-            if (SudokuSolverUtils.validateInput(tempGrid, this)) {
-                if (SudokuSolverUtils.solveSudoku(tempGrid)) {
-                    GridAndButtonUtils.setGridOutput(tempGrid, this, "enable");
-                    Toast.makeText(this, "Puzzle solved!", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(this, "No solution exists", Toast.LENGTH_SHORT).show();
-                }
+                // Solve off the main thread, showing progress on the Solve button
+                Button btsolve = findViewById(R.id.buttonsolve);
+                solveLabel = btsolve.getText();
+                btsolve.setEnabled(false);
+
+                pendingSolve = AsyncSolver.solve(userGrid, new AsyncSolver.SolveCallback() {
+                    @Override
+                    public void onProgress(long nodes) {
+                        btsolve.setText("Solving " + nodes / 1000 + "k");
+                    }
+
+                    @Override
+                    public void onResult(SudokuGrid solution, SearchControl.Stop stop, long nodes) {
+                        pendingSolve = null;
+                        restoreSolveButton();
+
+                        if (solution != null) {
+                            userGrid.copyFrom(solution);
+                            marks.clearAll();
+                            GridAndButtonUtils.setGridOutput(solution, RandomSudokuActivity.this, "enable");
+                            GridAndButtonUtils.refreshConflicts(constraints, RandomSudokuActivity.this);
+                            GridRenderer.of(RandomSudokuActivity.this).showMarks(marks);
+                            Toast.makeText(RandomSudokuActivity.this, "Puzzle solved!", Toast.LENGTH_SHORT).show();
+                        } else if (stop == SearchControl.Stop.NONE) {
+                            Toast.makeText(RandomSudokuActivity.this, "No solution exists", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Log.w(TAG, "Solver stopped early: " + stop + " after " + nodes + " nodes");
+                            Toast.makeText(RandomSudokuActivity.this, "Puzzle too complex to solve", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                });
             }
         } catch (Exception e) {
             Log.e(TAG, "Error solving puzzle", e);
@@ -205,12 +384,30 @@ public class RandomSudokuActivity extends AppCompatActivity {
         }
     }
 
+    // --A cancelled solve never calls back, so its button is restored here
+    private void cancelPendingSolve() {
+        if (pendingSolve != null) {
+            pendingSolve.cancel();
+            pendingSolve = null;
+            restoreSolveButton();
+        }
+    }
+
+    private void restoreSolveButton() {
+        Button btsolve = findViewById(R.id.buttonsolve);
+        btsolve.setText(solveLabel);
+        btsolve.setEnabled(true);
+    }
+
     @Override
     protected void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
-        outState.putIntArray("userGrid", GridAndButtonUtils.flattenGrid(userGrid));
-        outState.putIntArray("genGrid", GridAndButtonUtils.flattenGrid(genGrid));
-        outState.putIntArray("solutionGrid", GridAndButtonUtils.flattenGrid(solutionGrid));
+        outState.putByteArray("userGrid", userGrid.toBytes());
+        outState.putByteArray("genGrid", genGrid.toBytes());
+        outState.putByteArray("solutionGrid", solutionGrid.toBytes());
+        outState.putString("puzzleId", puzzleId);
+        outState.putShortArray("marks", marks.toArray());
+        outState.putBoolean("notesMode", notesMode);
         Log.d(TAG, "Game state saved");
     }
 
@@ -219,4 +416,10 @@ public class RandomSudokuActivity extends AppCompatActivity {
         super.onRestoreInstanceState(savedInstanceState);
         Log.d(TAG, "Game state restored");
     }
+
+    @Override
+    protected void onDestroy() {
+        cancelPendingSolve();
+        super.onDestroy();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.sudokuclassicwithcamera;
+
+import static com.example.sudokuclassicwithcamera.Prompts.cells_prompt;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.sudokuclassicwithcamera.core.MatrixParser;
+import com.example.sudokuclassicwithcamera.core.ParallelPuzzleGenerator;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.core.vision.ScanResult;
+import com.example.sudokuclassicwithcamera.utils.ImagePreparer;
+import com.example.sudokuclassicwithcamera.utils.LocalScanner;
+import com.example.sudokuclassicwithcamera.utils.SudokuSolverUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decides how a photo is recognised, cheapest first:
+ * <ol>
+ *   <li>on the device, if every filled cell is above the confidence gate,</li>
+ *   <li>on the device plus a remote read of only the uncertain cells, sent as one small mosaic,</li>
+ *   <li>otherwise the caller sends the whole photo to Gemini.</li>
+ * </ol>
+ * A grid from the first two routes is only accepted if it has no conflicting digits and the
+ * solver finds exactly one solution, a misread digit almost never leaves that intact.
+ */
+public class RecognitionRouter {
+
+    private static final String TAG = "RecognitionRouter";
+
+    private static final float CONFIDENCE_GATE = 0.9f; // classifier probability a digit is trusted at
+    private static final int MAX_REMOTE_CELLS = 18;    // above this the whole photo is the better request
+    private static final int TILE_SIZE = 64;           // px per cell in the mosaic
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Async recognition, the callback runs on the main thread with the accepted 9x9 grid,
+     * or null when the whole photo has to go to Gemini
+     */
+    public static void recognize(Context context, LifecycleOwner owner, Bitmap bitmap, RouteCallback callback) {
+        if (!LocalScanner.isAvailable(context)) {
+            callback.onResult(null);
+            return;
+        }
+
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            ScanResult scan = LocalScanner.recognize(appContext, bitmap);
+            if (scan == null) {
+                mainHandler.post(() -> callback.onResult(null));
+                return;
+            }
+
+            int[] uncertain = scan.uncertainCells(CONFIDENCE_GATE);
+            if (uncertain.length == 0) {
+                Log.d(TAG, "All digits recognised on the device");
+                mainHandler.post(() -> accept(scan.toMatrix(), callback));
+            } else if (uncertain.length > MAX_REMOTE_CELLS) {
+                Log.d(TAG, uncertain.length + " uncertain cells, sending the whole photo");
+                mainHandler.post(() -> callback.onResult(null));
+            } else {
+                byte[] jpeg = ImagePreparer.encode(scan.cellMosaic(uncertain, TILE_SIZE));
+                Log.d(TAG, uncertain.length + " uncertain cells, sending them as a " + jpeg.length + " byte mosaic");
+                mainHandler.post(() -> readRemotely(owner, scan, uncertain, jpeg, callback));
+            }
+        });
+    }
+
+    // --Ask Gemini for the uncertain cells only and merge its digits into the local scan
+    private static void readRemotely(LifecycleOwner owner, ScanResult scan, int[] cells, byte[] jpeg,
+                                     RouteCallback callback) {
+        String prompt = String.format(cells_prompt, cells.length, cells.length);
+        GenAI.getGeminiResponse(owner, prompt, jpeg, response -> {
+            int[] digits = MatrixParser.parseDigits(response, cells.length);
+            if (digits == null) {
+                Log.w(TAG, "Unusable cell answer, sending the whole photo: " + response);
+                callback.onResult(null);
+                return;
+            }
+
+            int[][] matrix = scan.toMatrix();
+            for (int i = 0; i < cells.length; i++) {
+                matrix[cells[i] / 9][cells[i] % 9] = digits[i];
+            }
+            accept(matrix, callback);
+        });
+    }
+
+    // --No conflicts, enough clues and exactly one solution, the solver runs off the main thread;
+    // --checked without SudokuSolverUtils.validateInput, whose conflict toast would show before the fallback
+    private static void accept(int[][] matrix, RouteCallback callback) {
+        SudokuGrid grid = SudokuGrid.fromArray(matrix);
+        if (SudokuGrid.CELLS - grid.countEmpty() < ParallelPuzzleGenerator.MIN_CLUES || grid.findConflict() >= 0) {
+            callback.onResult(null);
+            return;
+        }
+
+        executor.execute(() -> {
+            boolean unique = SudokuSolverUtils.countSolutions(grid, 2) == 1;
+            Log.d(TAG, "Combined grid " + (unique ? "accepted" : "rejected, not exactly one solution"));
+            mainHandler.post(() -> callback.onResult(unique ? matrix : null));
+        });
+    }
+
+    /**
+     * Callback interface for the routed recognition
+     */
+    public interface RouteCallback {
+        void onResult(int[][] matrix);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.sudokuclassicwithcamera.core.SearchControl;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.core.SudokuSolverCore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AsyncSolver {
+
+    private static final String TAG = "AsyncSolver";
+
+    public static final long DEFAULT_MAX_NODES = 5_000_000;
+    public static final long DEFAULT_TIMEOUT_MS = 3_000;
+    private static final long PROGRESS_INTERVAL = 50_000; // nodes between progress callbacks
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Async solve with the default budget
+     */
+    public static SolveHandle solve(SudokuGrid grid, SolveCallback callback) {
+        return solve(grid, DEFAULT_MAX_NODES, DEFAULT_TIMEOUT_MS, callback);
+    }
+
+    /**
+     * Async solve of a copy of the grid on the worker pool, callbacks run on the main thread
+     * and are dropped once the handle is cancelled
+     */
+    public static SolveHandle solve(SudokuGrid grid, long maxNodes, long timeoutMillis, SolveCallback callback) {
+        SudokuGrid work = grid.copy();
+        SolveHandle handle = new SolveHandle();
+
+        handle.control = new SearchControl(maxNodes, timeoutMillis, PROGRESS_INTERVAL,
+                nodes -> mainHandler.post(() -> {
+                    if (!handle.isCancelled()) callback.onProgress(nodes);
+                }));
+
+        handle.future = executor.submit(() -> {
+            boolean solved;
+            try {
+                solved = SudokuSolverCore.solveSudoku(work, handle.control);
+            } catch (Exception e) {
+                Log.e(TAG, "Error while solving", e);
+                solved = false;
+            }
+
+            boolean finalSolved = solved;
+            SearchControl.Stop stop = handle.control.getStop();
+            long nodes = handle.control.getNodes();
+            Log.d(TAG, "Solve finished: solved=" + finalSolved + ", stop=" + stop + ", nodes=" + nodes);
+
+            // Return to UI thread
+            mainHandler.post(() -> {
+                if (!handle.isCancelled()) callback.onResult(finalSolved ? work : null, stop, nodes);
+            });
+        });
+        return handle;
+    }
+
+    /**
+     * Handle of a running solve, cancel it when the activity goes away
+     */
+    public static final class SolveHandle {
+        private volatile boolean cancelled;
+        private SearchControl control;
+        private Future<?> future;
+
+        public void cancel() {
+            cancelled = true;
+            control.cancel();
+            future.cancel(false);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Callback interface for async solving
+     */
+    public interface SolveCallback {
+        void onProgress(long nodes);
+
+        // solution is null when no solution exists or the search stopped early (stop != NONE)
+        void onResult(SudokuGrid solution, SearchControl.Stop stop, long nodes);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+
+import com.example.sudokuclassicwithcamera.R;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+
+import java.util.Arrays;
+
+/**
+ * The 81 grid buttons of an activity indexed by cell (row * 9 + col).
+ * <p>
+ * The layout numbers them button1-button89 and skips every 10th id. The resource lookups run
+ * once per activity, the result is cached on the content view and every button is tagged with
+ * its cell index, so renders and reads are plain array walks.
+ */
+public final class CellButtons {
+
+    private static final String TAG = "CellButtons";
+
+    // --Layout button number of every cell: row r, column c -> button(r * 10 + c + 1)
+    private static final int[] BUTTON_NUMBER = new int[SudokuGrid.CELLS];
+    // --Cell index of every button number 0-89, -1 for the skipped ids
+    private static final int[] CELL_OF_BUTTON = new int[90];
+
+    static {
+        Arrays.fill(CELL_OF_BUTTON, -1);
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int number = SudokuGrid.rowOf(cell) * 10 + SudokuGrid.colOf(cell) + 1;
+            BUTTON_NUMBER[cell] = number;
+            CELL_OF_BUTTON[number] = cell;
+        }
+    }
+
+    private final Button[] buttons = new Button[SudokuGrid.CELLS];
+    private final int found;
+
+    private CellButtons(Activity activity) {
+        int count = 0;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int resID = activity.getResources().getIdentifier("button" + BUTTON_NUMBER[cell], "id", activity.getPackageName());
+            Button button = resID != 0 ? activity.findViewById(resID) : null;
+            if (button != null) {
+                button.setTag(R.id.cell_index, cell);
+                buttons[cell] = button;
+                count++;
+            }
+        }
+        found = count;
+        Log.d(TAG, "Indexed " + found + "/81 grid buttons");
+    }
+
+    // --Button index of the activity, built on first use
+    public static CellButtons of(Context context) {
+        Activity activity = (Activity) context;
+        View root = activity.findViewById(android.R.id.content);
+        Object cached = root.getTag(R.id.cell_buttons);
+        if (cached instanceof CellButtons) return (CellButtons) cached;
+
+        CellButtons cells = new CellButtons(activity);
+        root.setTag(R.id.cell_buttons, cells);
+        return cells;
+    }
+
+    // --Button of a cell, null if the layout lacks it
+    public Button get(int cell) {
+        return buttons[cell];
+    }
+
+    // --Number of grid buttons found in the layout, 81 when the layout is complete
+    public int size() {
+        return found;
+    }
+
+    // --Cell index of an indexed grid button, -1 for any other view
+    public static int cellOf(View view) {
+        Object tag = view == null ? null : view.getTag(R.id.cell_index);
+        return tag instanceof Integer ? (Integer) tag : -1;
+    }
+
+    // --Layout button number (1-89) of a cell
+    public static int buttonNumberOf(int cell) {
+        return BUTTON_NUMBER[cell];
+    }
+
+    // --Cell index of a layout button number, -1 for the skipped numbers
+    public static int cellOfButtonNumber(int buttonNumber) {
+        return buttonNumber >= 0 && buttonNumber < CELL_OF_BUTTON.length ? CELL_OF_BUTTON[buttonNumber] : -1;
+    }
+}
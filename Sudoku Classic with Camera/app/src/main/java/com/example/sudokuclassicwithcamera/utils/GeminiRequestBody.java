@@ -0,0 +1,58 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * generateContent request with one text part and one inline image, written straight to the socket:
+ * the image is Base64-encoded chunk by chunk, so no Base64 or JSON string of the image is ever built.
+ */
+public class GeminiRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final int CHUNK = 3 * 1024; // multiple of 3, so chunks encode without padding
+
+    private final byte[] head;
+    private final byte[] tail;
+    private final byte[] image;
+
+    public GeminiRequestBody(String prompt, String mimeType, byte[] image) {
+        // {"contents":[{"parts":[{"text":...},{"inlineData":{"mimeType":...,"data":"<base64>"}}]}]}
+        this.head = ("{\"contents\":[{\"parts\":[{\"text\":" + JSONObject.quote(prompt)
+                + "},{\"inlineData\":{\"mimeType\":" + JSONObject.quote(mimeType) + ",\"data\":\"")
+                .getBytes(StandardCharsets.UTF_8);
+        this.tail = "\"}}]}]}".getBytes(StandardCharsets.UTF_8);
+        this.image = image;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        long base64 = 4L * ((image.length + 2) / 3);
+        return head.length + base64 + tail.length;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        sink.write(head);
+        for (int offset = 0; offset < image.length; offset += CHUNK) {
+            int length = Math.min(CHUNK, image.length - offset);
+            sink.write(Base64.encode(image, offset, length, Base64.NO_WRAP));
+        }
+        sink.write(tail);
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.sudokuclassicwithcamera.utils;
 
-import android.app.Activity;
 import android.content.Context;
 import android.util.Log;
 import android.util.TypedValue;
 import android.widget.Button;
 import com.example.sudokuclassicwithcamera.R;
+import com.example.sudokuclassicwithcamera.core.ConstraintState;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.core.SudokuSolverCore;
+
+import java.util.Arrays;
 
 public class GridAndButtonUtils {
 
@@ -39,33 +43,70 @@ public class GridAndButtonUtils {
     }
 
     //-- Handle the inputs for the buttons
-    public static void handleInputsButton(Button clickedButton, Context context, Button lastClickedButton, int[][] userGrid) {
-        if (lastClickedButton == null) return;
+    public static void handleInputsButton(Button clickedButton, Context context, Button lastClickedButton, SudokuGrid userGrid) {
+        int cell = applyInput(clickedButton, context, lastClickedButton);
+
+        // Update the grid if provided
+        if (cell >= 0 && userGrid != null) {
+            userGrid.set(cell, cellValue(lastClickedButton.getText().toString()));
+        }
+    }
+
+    // --Handle the inputs and keep the live conflict state in step, conflicting digits are highlighted as they are typed
+    public static void handleInputsButton(Button clickedButton, Context context, Button lastClickedButton, ConstraintState state) {
+        int cell = applyInput(clickedButton, context, lastClickedButton);
+        if (cell < 0 || state == null) return;
+
+        state.set(cell, cellValue(lastClickedButton.getText().toString()));
+        GridRenderer.of(context).showConflicts(state, cell);
+    }
+
+    // --Show the pressed digit in the selected cell, returns the grid cell or -1
+    private static int applyInput(Button clickedButton, Context context, Button lastClickedButton) {
+        if (lastClickedButton == null) return -1;
 
         try {
             String input = getInputFromButton(clickedButton);
-            if (input == null) return;
+            if (input == null) return -1;
 
             // Validate input
             if (!isValidInput(input)) {
-                return;
+                return -1;
             }
 
-            lastClickedButton.setText(input);
-
-            // Update the grid if provided
-            if (userGrid != null) {
-                int[] coords = getGridCoordinatesFromButton(lastClickedButton);
-                if (coords != null) {
-                    if (!input.trim().isEmpty() && !input.equals(" ")) {
-                        userGrid[coords[0]][coords[1]] = Integer.parseInt(input);
-                    } else {
-                        userGrid[coords[0]][coords[1]] = 0;
-                    }
-                }
+            // Grid cells go through the renderer so only this button is touched
+            int[] coords = getGridCoordinatesFromButton(lastClickedButton);
+            if (coords == null) {
+                lastClickedButton.setText(input);
+                return -1;
             }
+            int cell = SudokuGrid.indexOf(coords[0], coords[1]);
+            GridRenderer.of(context).setCell(cell, cellValue(input));
+            return cell;
         } catch (Exception e) {
             Log.e(TAG, "Error in handleInputsButton", e);
+            return -1;
+        }
+    }
+
+    // --int[][] adapter of handleInputsButton
+    public static void handleInputsButton(Button clickedButton, Context context, Button lastClickedButton, int[][] userGrid) {
+        handleInputsButton(clickedButton, context, lastClickedButton, (SudokuGrid) null);
+        if (userGrid == null || lastClickedButton == null) return;
+
+        int[] coords = getGridCoordinatesFromButton(lastClickedButton);
+        if (coords != null) {
+            userGrid[coords[0]][coords[1]] = cellValue(lastClickedButton.getText().toString());
+        }
+    }
+
+    // --Digit shown on a cell button, 0 for blank or unreadable text
+    private static int cellValue(String text) {
+        try {
+            String trimmed = text.trim();
+            return trimmed.isEmpty() ? 0 : Integer.parseInt(trimmed);
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
 
@@ -108,91 +149,28 @@ public class GridAndButtonUtils {
         }
     }
 
-    // --Get grid coordinates from button using explicit mapping
+    // --Get grid coordinates from button using the cell index table
     public static int[] getGridCoordinatesFromButton(Button button) {
         if (button == null) return null;
 
-        int[] coords = new int[2];
-        String resourceName = "";
-
-        try {
-            resourceName = button.getResources().getResourceName(button.getId());
-            Log.d(TAG, "Processing: " + resourceName);
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting resource name", e);
-            return null;
-        }
-
-        // Extract button number from resource name
-        try {
-            String buttonNumStr = resourceName.substring(resourceName.lastIndexOf("button") + 6);
-            int buttonNum = Integer.parseInt(buttonNumStr);
-
-            Log.d(TAG, "Processing button" + buttonNum);
-
-            // Validate button number range
-            if (buttonNum < 1 || buttonNum > 89) {
-                Log.w(TAG, "Button number " + buttonNum + " out of range");
-                return null;
-            }
-
-            // Skip invalid button numbers (10, 20, 30, etc.)
-            if (buttonNum % 10 == 0) {
-                Log.w(TAG, "Button number " + buttonNum + " is skipped in layout");
-                return null;
-            }
-
-            // Calculate mapping directly (more efficient)
-            // Since we skip every 10th button, we need to adjust the calculation
-            int skippedButtons = buttonNum / 10; // Number of 10th buttons we've passed
-            int actualPosition = buttonNum - skippedButtons;
-
-            // Convert to grid coordinates (0-8, 0-8)
-            int row = (actualPosition - 1) / 9;
-            int col = (actualPosition - 1) % 9;
-
-            // Validate coordinates
-            if (row >= 0 && row < 9 && col >= 0 && col < 9) {
-                coords[0] = row;
-                coords[1] = col;
-                Log.d(TAG, String.format("Button%d -> Grid[%d][%d]", buttonNum, row, col));
-                return coords;
-            } else {
-                Log.w(TAG, "Calculated invalid coordinates: row=" + row + ", col=" + col);
+        // Buttons indexed by CellButtons carry their cell index
+        int cell = CellButtons.cellOf(button);
+        if (cell < 0) {
+            try {
+                String resourceName = button.getResources().getResourceName(button.getId());
+                int buttonNum = Integer.parseInt(resourceName.substring(resourceName.lastIndexOf("button") + 6));
+                cell = CellButtons.cellOfButtonNumber(buttonNum);
+            } catch (Exception e) {
+                Log.e(TAG, "Error getting grid coordinates", e);
                 return null;
             }
-        } catch (NumberFormatException e) {
-            Log.e(TAG, "Invalid button number format", e);
-            return null;
-        } catch (Exception e) {
-            Log.e(TAG, "Unexpected error in coordinate calculation", e);
-            return null;
         }
-    }
 
-    // --Create mapping for our specific layout (buttons 1-89 with gaps)
-    private static int[][] createButtonToGridMapping() {
-        int[][] mapping = new int[9][9];
-        int buttonIndex = 1;
-
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                mapping[row][col] = buttonIndex;
-                buttonIndex++;
-
-                // Skip every 10th button (your layout has gaps at 10,20,30,...,90)
-                if (buttonIndex % 10 == 0) {
-                    buttonIndex++;
-                }
-
-                // Safety check - don't exceed 89
-                if (buttonIndex > 89) {
-                    Log.w(TAG, "Button index exceeded 89 at row=" + row + ", col=" + col);
-                    return mapping;
-                }
-            }
+        if (cell < 0) {
+            Log.w(TAG, "Button is not a grid cell");
+            return null;
         }
-        return mapping;
+        return new int[]{SudokuGrid.rowOf(cell), SudokuGrid.colOf(cell)};
     }
 
     // --Reset button to default appearance
@@ -208,30 +186,21 @@ public class GridAndButtonUtils {
     }
 
     // --Reset the grid
-    public static void resetGrid(int grid[][], Context context, Button lastClickedButton) {
+    public static void resetGrid(SudokuGrid grid, Context context, Button lastClickedButton) {
         try {
-            for (int i = 1; i <= 89; i++) {
-                // Skip every 10th button
-                if (i % 10 == 0) continue;
-
-                int resID = context.getResources().getIdentifier("button" + i, "id", context.getPackageName());
-                if (resID != 0) {
-                    Button button = ((Activity)context).findViewById(resID);
-                    if (button != null) {
-                        button.setText("");
-                        button.setEnabled(true);
-                        resetButtonAppearance(button, context);
-
-                        // Also reset the grid array
-                        if (grid != null) {
-                            int[] coords = getGridCoordinatesFromButton(button);
-                            if (coords != null) {
-                                grid[coords[0]][coords[1]] = 0;
-                            }
-                        }
-                    }
+            CellButtons cells = CellButtons.of(context);
+            for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+                Button button = cells.get(cell);
+                if (button != null) {
+                    resetButtonAppearance(button, context);
                 }
             }
+            GridRenderer.of(context).render(new SudokuGrid(), null);
+
+            // Also reset the grid
+            if (grid != null) {
+                grid.clear();
+            }
 
             // Reset last clicked button appearance
             if (lastClickedButton != null) {
@@ -242,8 +211,18 @@ public class GridAndButtonUtils {
         }
     }
 
+    // --int[][] adapter of resetGrid
+    public static void resetGrid(int grid[][], Context context, Button lastClickedButton) {
+        resetGrid((SudokuGrid) null, context, lastClickedButton);
+        if (grid != null) {
+            for (int[] row : grid) {
+                Arrays.fill(row, 0);
+            }
+        }
+    }
+
     // --Print the grid
-    public static void printGrid(int grid[][]) {
+    public static void printGrid(SudokuGrid grid) {
         if (grid == null) {
             Log.d(TAG, "Grid is null");
             return;
@@ -252,39 +231,29 @@ public class GridAndButtonUtils {
         sb.append("Sudoku Grid:\n");
         for (int row = 0; row < 9; row++) {
             for (int col = 0; col < 9; col++) {
-                sb.append(grid[row][col]).append(" ");
+                sb.append(grid.get(row, col)).append(" ");
             }
             sb.append("\n");
         }
         Log.d(TAG, sb.toString());
     }
 
+    // --int[][] adapter of printGrid
+    public static void printGrid(int grid[][]) {
+        printGrid(grid == null ? null : SudokuGrid.fromArray(grid));
+    }
+
     // --Get the grid input from UI
-    public static void getGridInput(int grid[][], Context context) {
+    public static void getGridInput(SudokuGrid grid, Context context) {
         if (grid == null) return;
 
         try {
-            for (int i = 1; i <= 89; i++) {
-                if (i % 10 == 0) continue; // Skip every 10th button
-
-                int resID = context.getResources().getIdentifier("button" + i, "id", context.getPackageName());
-                if (resID != 0) {
-                    Button button = ((Activity)context).findViewById(resID);
-                    if (button != null) {
-                        int[] coords = getGridCoordinatesFromButton(button);
-                        if (coords != null) {
-                            String btText = button.getText().toString();
-                            try {
-                                if (btText.equals("") || btText.equals(" ")) {
-                                    grid[coords[0]][coords[1]] = 0;
-                                } else {
-                                    grid[coords[0]][coords[1]] = Integer.parseInt(btText);
-                                }
-                            } catch (NumberFormatException e) {
-                                grid[coords[0]][coords[1]] = 0;
-                            }
-                        }
-                    }
+            CellButtons cells = CellButtons.of(context);
+            for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+                Button button = cells.get(cell);
+                if (button != null) {
+                    int value = cellValue(button.getText().toString());
+                    grid.set(cell, value >= 1 && value <= 9 ? value : 0);
                 }
             }
         } catch (Exception e) {
@@ -292,47 +261,56 @@ public class GridAndButtonUtils {
         }
     }
 
-    // --Set the grid output to UI
-    public static void setGridOutput(int grid[][], Context context, String tag) {
+    // --int[][] adapter of getGridInput
+    public static void getGridInput(int grid[][], Context context) {
+        if (grid == null) return;
+
+        SudokuGrid input = SudokuGrid.fromArray(grid);
+        getGridInput(input, context);
+        input.copyTo(grid);
+    }
+
+    // --Set the grid output to UI, "disable" locks the filled cells
+    public static void setGridOutput(SudokuGrid grid, Context context, String tag) {
+        if (grid == null) return;
+        setGridOutput(grid, "disable".equals(tag) ? grid : null, context);
+    }
+
+    // --Show the grid with the cells filled in givens locked, only changed cells are redrawn
+    public static void setGridOutput(SudokuGrid grid, SudokuGrid givens, Context context) {
         if (grid == null) return;
 
         try {
-            for (int i = 1; i <= 89; i++) {
-                if (i % 10 == 0) continue; // Skip every 10th button
-
-                int resID = context.getResources().getIdentifier("button" + i, "id", context.getPackageName());
-                if (resID != 0) {
-                    Button button = ((Activity)context).findViewById(resID);
-                    if (button != null) {
-                        int[] coords = getGridCoordinatesFromButton(button);
-                        if (coords != null) {
-                            int gridValue = grid[coords[0]][coords[1]];
-                            if (gridValue == 0) {
-                                button.setText("");
-                            } else {
-                                button.setText(String.valueOf(gridValue));
-                            }
-
-                            if ("disable".equals(tag)) {
-                                if (gridValue != 0) {
-                                    button.setEnabled(false);
-                                    button.setTextColor(context.getResources().getColor(R.color.blue));
-                                } else {
-                                    button.setEnabled(true);
-                                }
-                            } else {
-                                button.setEnabled(true);
-                            }
-                        }
-                    }
-                }
-            }
+            GridRenderer.of(context).render(grid, givens);
         } catch (Exception e) {
             Log.e(TAG, "Error in setGridOutput", e);
         }
     }
 
+    // --int[][] adapter of setGridOutput
+    public static void setGridOutput(int grid[][], Context context, String tag) {
+        if (grid == null) return;
+        setGridOutput(SudokuGrid.fromArray(grid), context, tag);
+    }
+
+    // --Rebuild the conflict state after the grid was changed directly and mark its conflicts
+    public static void refreshConflicts(ConstraintState state, Context context) {
+        if (state == null) return;
+
+        try {
+            state.reload();
+            GridRenderer.of(context).showConflicts(state);
+        } catch (Exception e) {
+            Log.e(TAG, "Error in refreshConflicts", e);
+        }
+    }
+
     // --Check if the grid contains any zero
+    public static boolean noZeroInGrid(SudokuGrid grid) {
+        return grid != null && grid.isFilled();
+    }
+
+    // --int[][] adapter of noZeroInGrid
     public static boolean noZeroInGrid(int grid[][]) {
         if (grid == null) return false;
 
@@ -347,6 +325,11 @@ public class GridAndButtonUtils {
     }
 
     // --Compare two grids
+    public static boolean compareGrid(SudokuGrid grid1, SudokuGrid grid2) {
+        return grid1 != null && grid1.equals(grid2);
+    }
+
+    // --int[][] adapter of compareGrid
     public static boolean compareGrid(int grid1[][], int grid2[][]) {
         if (grid1 == null || grid2 == null) return false;
 
@@ -361,13 +344,13 @@ public class GridAndButtonUtils {
     }
 
     // --Copy grid
+    public static SudokuGrid copyGrid(SudokuGrid source) {
+        return source == null ? null : source.copy();
+    }
+
+    // --int[][] adapter of copyGrid
     public static int[][] copyGrid(int[][] source) {
-        if (source == null) return null;
-        int[][] copy = new int[9][9];
-        for (int i = 0; i < 9; i++) {
-            System.arraycopy(source[i], 0, copy[i], 0, 9);
-        }
-        return copy;
+        return SudokuSolverCore.copyGrid(source);
     }
 
     // --Flatten grid for saving state
@@ -396,26 +379,8 @@ public class GridAndButtonUtils {
 
     // --For Debugging: Check if all buttons are mapped correctly
     public static boolean validateAllButtons(Context context) {
-        int validButtons = 0;
-        int totalButtons = 0;
-
-        for (int i = 1; i <= 89; i++) {
-            if (i % 10 == 0) continue;
-            totalButtons++;
-
-            int resID = context.getResources().getIdentifier("button" + i, "id", context.getPackageName());
-            if (resID != 0) {
-                Button button = ((Activity)context).findViewById(resID);
-                if (button != null) {
-                    int[] coords = getGridCoordinatesFromButton(button);
-                    if (coords != null) {
-                        validButtons++;
-                    }
-                }
-            }
-        }
-
-        Log.d(TAG, "Button validation: " + validButtons + "/" + totalButtons + " buttons mapped correctly");
+        int validButtons = CellButtons.of(context).size();
+        Log.d(TAG, "Button validation: " + validButtons + "/81 buttons mapped correctly");
         return validButtons == 81; // Should have exactly 81 valid buttons for 9x9 grid
     }
 
@@ -441,14 +406,13 @@ public class GridAndButtonUtils {
             int expectedRow = testCase[1];
             int expectedCol = testCase[2];
 
-            int skippedButtons = buttonNum / 10;
-            int actualPosition = buttonNum - skippedButtons;
-            int row = (actualPosition - 1) / 9;
-            int col = (actualPosition - 1) % 9;
+            int cell = CellButtons.cellOfButtonNumber(buttonNum);
+            int row = SudokuGrid.rowOf(cell);
+            int col = SudokuGrid.colOf(cell);
 
             boolean correct = (row == expectedRow && col == expectedCol);
-            Log.d(TAG, String.format("Button%d -> Grid[%d][%d] %s (skipped:%d, actualPos:%d)",
-                    buttonNum, row, col, correct ? "✓" : "✗", skippedButtons, actualPosition));
+            Log.d(TAG, String.format("Button%d -> Grid[%d][%d] %s (cell:%d)",
+                    buttonNum, row, col, correct ? "✓" : "✗", cell));
         }
     }
 
@@ -460,42 +424,26 @@ public class GridAndButtonUtils {
         int[][] buttonGrid = new int[9][9]; // Store button numbers for each grid position
         String[][] textGrid = new String[9][9]; // Store button text for each grid position
 
-        // Test all buttons 1-89
-        for (int buttonNum = 1; buttonNum <= 89; buttonNum++) {
-            if (buttonNum % 10 == 0) {
-                Log.d(TAG, "Button" + buttonNum + ": SKIPPED (every 10th button)");
+        // Walk the indexed grid buttons
+        CellButtons cells = CellButtons.of(context);
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int buttonNum = CellButtons.buttonNumberOf(cell);
+            Button button = cells.get(cell);
+            if (button == null) {
+                Log.w(TAG, "Button" + buttonNum + ": NOT FOUND IN LAYOUT");
                 continue;
             }
 
-            try {
-                int resID = context.getResources().getIdentifier("button" + buttonNum, "id", context.getPackageName());
-                if (resID != 0) {
-                    Button button = ((Activity)context).findViewById(resID);
-                    if (button != null) {
-                        int[] coords = getGridCoordinatesFromButton(button);
-                        if (coords != null) {
-                            String text = button.getText().toString();
-                            int row = coords[0];
-                            int col = coords[1];
-
-                            buttonGrid[row][col] = buttonNum;
-                            textGrid[row][col] = text.isEmpty() ? "empty" : text;
-                            validMappings++;
-
-                            Log.d(TAG, String.format("Button%d -> Grid[%d][%d] Text: '%s'",
-                                    buttonNum, row, col, text));
-                        } else {
-                            Log.w(TAG, "Button" + buttonNum + ": NO MAPPING");
-                        }
-                    } else {
-                        Log.w(TAG, "Button" + buttonNum + ": NOT FOUND IN LAYOUT");
-                    }
-                } else {
-                    Log.w(TAG, "Button" + buttonNum + ": NO RESOURCE ID");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error debugging button" + buttonNum, e);
-            }
+            String text = button.getText().toString();
+            int row = SudokuGrid.rowOf(cell);
+            int col = SudokuGrid.colOf(cell);
+
+            buttonGrid[row][col] = buttonNum;
+            textGrid[row][col] = text.isEmpty() ? "empty" : text;
+            validMappings++;
+
+            Log.d(TAG, String.format("Button%d -> Grid[%d][%d] Text: '%s'",
+                    buttonNum, row, col, text));
         }
 
         Log.d(TAG, "Valid mappings found: " + validMappings + "/81");
@@ -0,0 +1,196 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.View;
+import android.widget.Button;
+
+import com.example.sudokuclassicwithcamera.R;
+import com.example.sudokuclassicwithcamera.core.ConstraintState;
+import com.example.sudokuclassicwithcamera.core.PencilMarks;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+
+import java.util.Arrays;
+
+/**
+ * Renders grids onto the {@link CellButtons} of an activity, touching only the cells whose
+ * value or locked state differs from what it last rendered.
+ * <p>
+ * All changes of one render are applied in a single pass on the UI thread, so the framework
+ * coalesces them into one layout traversal. Code that restyles grid buttons behind the
+ * renderer's back must call {@link #invalidateAll()} so the next render repaints every cell.
+ */
+public final class GridRenderer {
+
+    private static final String TAG = "GridRenderer";
+    private static final byte UNKNOWN = -1;
+
+    private final CellButtons cells;
+    private final int givenColor;
+    private final int conflictColor;
+    private final int hintColor;
+    private final int backgroundColor;
+    private final byte[] shownValue = new byte[SudokuGrid.CELLS];
+    private final byte[] shownLocked = new byte[SudokuGrid.CELLS]; // 1 given, 0 editable
+    private final int[] dirty = new int[SudokuGrid.CELLS];
+    private final boolean[] shownConflict = new boolean[SudokuGrid.CELLS];
+    private final int[] colorBeforeConflict = new int[SudokuGrid.CELLS];
+    private final int[] hintCells = new int[SudokuGrid.CELLS];
+    private int hintCount;
+
+    private GridRenderer(Activity activity) {
+        this.cells = CellButtons.of(activity);
+        this.givenColor = activity.getResources().getColor(R.color.blue);
+        this.conflictColor = activity.getResources().getColor(R.color.red);
+        this.hintColor = activity.getResources().getColor(R.color.bg_hint);
+        TypedValue background = new TypedValue();
+        activity.getTheme().resolveAttribute(android.R.attr.colorBackground, background, true);
+        this.backgroundColor = background.data;
+        invalidateAll();
+    }
+
+    // --Renderer of the activity, built on first use
+    public static GridRenderer of(Context context) {
+        Activity activity = (Activity) context;
+        View root = activity.findViewById(android.R.id.content);
+        Object cached = root.getTag(R.id.grid_renderer);
+        if (cached instanceof GridRenderer) return (GridRenderer) cached;
+
+        GridRenderer renderer = new GridRenderer(activity);
+        root.setTag(R.id.grid_renderer, renderer);
+        return renderer;
+    }
+
+    // --Show the grid values, cells filled in givens (may be null) are locked, returns the cells touched
+    public int render(SudokuGrid grid, SudokuGrid givens) {
+        // Collect the changed cells first, then apply them in one batch
+        int count = 0;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int locked = givens != null && givens.get(cell) != 0 ? 1 : 0;
+            if (shownValue[cell] != grid.get(cell) || shownLocked[cell] != locked) {
+                dirty[count++] = cell;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int cell = dirty[i];
+            apply(cell, grid.get(cell), givens != null && givens.get(cell) != 0);
+        }
+
+        if (count > 0) Log.d(TAG, "Rendered " + count + " changed cells");
+        return count;
+    }
+
+    // --Show a value entered in an editable cell
+    public void setCell(int cell, int value) {
+        if (shownValue[cell] != value || shownLocked[cell] != 0) {
+            apply(cell, value, false);
+        }
+    }
+
+    // --Mark conflicting digits after an edit of one cell, only the cell and its 20 peers can change
+    public void showConflicts(ConstraintState state, int cell) {
+        showConflict(cell, state.isConflict(cell));
+        for (int i = 0; i < SudokuGrid.PEER_COUNT; i++) {
+            int peer = SudokuGrid.peerAt(cell, i);
+            showConflict(peer, state.isConflict(peer));
+        }
+    }
+
+    // --Mark conflicting digits on the whole board, e.g. after the grid was reloaded
+    public void showConflicts(ConstraintState state) {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            showConflict(cell, state.isConflict(cell));
+        }
+    }
+
+    private void showConflict(int cell, boolean conflict) {
+        if (!conflict && !shownConflict[cell]) return;
+        Button button = cells.get(cell);
+        if (button == null) return;
+
+        int color = button.getCurrentTextColor();
+        if (conflict) {
+            // Also re-applied when selecting the cell restyled it
+            if (color != conflictColor) {
+                colorBeforeConflict[cell] = color;
+                button.setTextColor(conflictColor);
+            }
+        } else if (color == conflictColor) {
+            // Restore only if nothing restyled the cell in the meantime
+            button.setTextColor(colorBeforeConflict[cell]);
+        }
+        shownConflict[cell] = conflict;
+    }
+
+    // --Show pencil marks after an edit of one cell, only the cell and its 20 peers can change
+    public void showMarks(PencilMarks marks, int cell) {
+        showMark(cell, marks.get(cell));
+        for (int i = 0; i < SudokuGrid.PEER_COUNT; i++) {
+            int peer = SudokuGrid.peerAt(cell, i);
+            showMark(peer, marks.get(peer));
+        }
+    }
+
+    // --Show pencil marks on the whole board, cells redraw only if their marks changed
+    public void showMarks(PencilMarks marks) {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            showMark(cell, marks.get(cell));
+        }
+    }
+
+    private void showMark(int cell, int mask) {
+        Button button = cells.get(cell);
+        if (button instanceof MarkedCellButton) ((MarkedCellButton) button).setMarks(mask);
+    }
+
+    // --Shade the cells supporting a hint, replacing any previous hint shading
+    public void showHint(int[] support) {
+        clearHint();
+        for (int cell : support) {
+            Button button = cells.get(cell);
+            if (button == null) continue;
+            button.setBackgroundColor(hintColor);
+            hintCells[hintCount++] = cell;
+        }
+    }
+
+    // --Remove the hint shading; call before restyling the selected cell
+    public void clearHint() {
+        for (int i = 0; i < hintCount; i++) {
+            Button button = cells.get(hintCells[i]);
+            if (button != null) button.setBackgroundColor(backgroundColor);
+        }
+        hintCount = 0;
+    }
+
+    // --Forget what a cell shows so the next render repaints it
+    public void invalidate(int cell) {
+        shownValue[cell] = UNKNOWN;
+        shownLocked[cell] = UNKNOWN;
+    }
+
+    public void invalidateAll() {
+        Arrays.fill(shownValue, UNKNOWN);
+        Arrays.fill(shownLocked, UNKNOWN);
+    }
+
+    private void apply(int cell, int value, boolean locked) {
+        Button button = cells.get(cell);
+        if (button == null) return;
+
+        if (shownValue[cell] != value) {
+            button.setText(value == 0 ? "" : String.valueOf(value));
+            shownValue[cell] = (byte) value;
+        }
+
+        int lockedState = locked ? 1 : 0;
+        if (shownLocked[cell] != lockedState) {
+            button.setEnabled(!locked);
+            if (locked) button.setTextColor(givenColor);
+            shownLocked[cell] = (byte) lockedState;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * The app's one OkHttp client: a kept-alive connection pool (HTTP/2 where the server offers it)
+ * and explicit per-phase timeouts. The overall deadline and retries are applied per request by
+ * {@link RetryPolicy}.
+ */
+public class HttpClients {
+
+    private static final long CONNECT_TIMEOUT_MS = 10_000;
+    private static final long WRITE_TIMEOUT_MS = 20_000; // an image upload on a slow uplink
+    private static final long READ_TIMEOUT_MS = 30_000;  // recognition can take a while before the first byte
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static OkHttpClient shared;
+
+    /**
+     * Shared client, built on first use
+     */
+    public static synchronized OkHttpClient shared() {
+        if (shared == null) {
+            shared = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .connectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .writeTimeout(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .readTimeout(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .retryOnConnectionFailure(true)
+                    .build();
+        }
+        return shared;
+    }
+
+    /**
+     * Fire-and-forget HEAD request so DNS, TCP and TLS are done and the connection
+     * is pooled before the first real request. The response itself is ignored.
+     */
+    public static void preconnect(OkHttpClient client, String url) {
+        Request request;
+        try {
+            request = new Request.Builder().url(url).head().build();
+        } catch (IllegalArgumentException e) {
+            return; // not configured
+        }
+
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // Offline or blocked, the real request will report it
+            }
+        });
+    }
+}
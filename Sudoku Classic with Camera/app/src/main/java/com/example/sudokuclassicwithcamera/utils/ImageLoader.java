@@ -0,0 +1,208 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.sudokuclassicwithcamera.core.vision.GrayImage;
+import com.example.sudokuclassicwithcamera.core.vision.GridDetector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decodes a picked or captured photo off the main thread without ever holding it at full resolution:
+ * read the bounds, decode a small preview to find the grid, then decode only the grid region
+ * at the sample size recognition needs, upright per the EXIF orientation.
+ * <p>
+ * The returned bitmap is immutable and is the only copy handed to recognition and upload.
+ */
+public class ImageLoader {
+
+    private static final String TAG = "ImageLoader";
+
+    private static final int PREVIEW_SIDE = 640;   // px, what GridDetector works at
+    private static final int TARGET_SIDE = 1600;   // px, longest side of the decoded region at least this
+    private static final float CROP_MARGIN = 0.1f; // of the grid size, ImagePreparer crops tighter later
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static Bitmap previewBuffer; // reused for every preview decode, only touched on the executor
+
+    /**
+     * Async decode of the image at uri, the callback runs on the main thread with null on failure
+     */
+    public static void load(Context context, Uri uri, LoadCallback callback) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            Bitmap bitmap;
+            try {
+                bitmap = decode(resolver, uri);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Failed to decode " + uri, e);
+                bitmap = null;
+            }
+
+            long elapsed = SystemClock.elapsedRealtime() - start;
+            Bitmap finalBitmap = bitmap;
+            mainHandler.post(() -> callback.onLoaded(finalBitmap, elapsed));
+        });
+    }
+
+    // --Blocking decode, call on a worker thread
+    static Bitmap decode(ContentResolver resolver, Uri uri) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        int width = bounds.outWidth;
+        int height = bounds.outHeight;
+        if (width <= 0 || height <= 0) throw new IOException("Not an image");
+
+        Rect region = findGridRegion(resolver, uri, width, height);
+        Bitmap bitmap = decodeRegion(resolver, uri, region, width, height);
+        if (bitmap == null) throw new IOException("Decoding failed");
+
+        Log.d(TAG, "Decoded " + width + "x" + height + ", region " + region.width() + "x" + region.height()
+                + " -> " + bitmap.getWidth() + "x" + bitmap.getHeight());
+        return rotateUpright(resolver, uri, bitmap);
+    }
+
+    // --Grid area plus a margin in full-resolution coordinates, the whole image if no grid is found
+    private static Rect findGridRegion(ContentResolver resolver, Uri uri, int width, int height) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(width, height, PREVIEW_SIDE);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inBitmap = previewBuffer;
+
+        Bitmap preview;
+        try (InputStream in = open(resolver, uri)) {
+            preview = BitmapFactory.decodeStream(in, null, options);
+        } catch (IllegalArgumentException e) {
+            // The pooled buffer is too small for this photo, decode into a fresh one
+            options.inBitmap = null;
+            try (InputStream in = open(resolver, uri)) {
+                preview = BitmapFactory.decodeStream(in, null, options);
+            }
+        }
+        if (preview == null) return new Rect(0, 0, width, height);
+        previewBuffer = preview;
+
+        GrayImage gray = ImagePreparer.grayscale(preview, PREVIEW_SIDE);
+        float[] corners = GridDetector.detect(gray);
+        if (corners == null) return new Rect(0, 0, width, height);
+
+        // Corners are in the pixels of the image searched, which may be scaled below the decoded preview
+        int[] box = GridDetector.cropBounds(corners, gray.getWidth(), width, height, CROP_MARGIN);
+        return new Rect(box[0], box[1], box[2], box[3]);
+    }
+
+    private static Bitmap decodeRegion(ContentResolver resolver, Uri uri, Rect region, int width, int height)
+            throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(region.width(), region.height(), TARGET_SIDE);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        try (InputStream in = open(resolver, uri)) {
+            BitmapRegionDecoder decoder = newRegionDecoder(in);
+            if (decoder != null) {
+                try {
+                    return decoder.decodeRegion(region, options);
+                } finally {
+                    decoder.recycle();
+                }
+            }
+        } catch (IOException e) {
+            // Formats without region support (e.g. GIF) fall through
+        }
+        Log.d(TAG, "Region decode not supported, decoding the whole image");
+
+        // The whole image is decoded here, so sample for its size, not the region's, then crop
+        options.inSampleSize = sampleSize(width, height, TARGET_SIDE);
+        Bitmap full;
+        try (InputStream in = open(resolver, uri)) {
+            full = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (full == null) return null;
+
+        int sample = options.inSampleSize;
+        int left = Math.min(region.left / sample, full.getWidth() - 1);
+        int top = Math.min(region.top / sample, full.getHeight() - 1);
+        int right = Math.max(left + 1, Math.min(region.right / sample, full.getWidth()));
+        int bottom = Math.max(top + 1, Math.min(region.bottom / sample, full.getHeight()));
+        if (left == 0 && top == 0 && right == full.getWidth() && bottom == full.getHeight()) return full;
+        Bitmap cropped = Bitmap.createBitmap(full, left, top, right - left, bottom - top);
+        if (cropped != full) full.recycle();
+        return cropped;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static BitmapRegionDecoder newRegionDecoder(InputStream in) throws IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            return BitmapRegionDecoder.newInstance(in);
+        }
+        return BitmapRegionDecoder.newInstance(in, false);
+    }
+
+    // --Apply the EXIF orientation, camera photos are often stored sideways
+    private static Bitmap rotateUpright(ContentResolver resolver, Uri uri, Bitmap bitmap) {
+        int degrees;
+        try (InputStream in = open(resolver, uri)) {
+            ExifInterface exif = new ExifInterface(in);
+            switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90: degrees = 90; break;
+                case ExifInterface.ORIENTATION_ROTATE_180: degrees = 180; break;
+                case ExifInterface.ORIENTATION_ROTATE_270: degrees = 270; break;
+                default: return bitmap;
+            }
+        } catch (IOException e) {
+            return bitmap; // no EXIF, keep as decoded
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.postRotate(degrees);
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) bitmap.recycle();
+        return rotated;
+    }
+
+    // --Largest power of two that keeps the longest side at or above minSide
+    static int sampleSize(int width, int height, int minSide) {
+        int longest = Math.max(width, height);
+        int sample = 1;
+        while (longest / (sample * 2) >= minSide) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) throw new IOException("Cannot open " + uri);
+        return in;
+    }
+
+    /**
+     * Callback interface for the decoded image
+     */
+    public interface LoadCallback {
+        void onLoaded(Bitmap bitmap, long elapsedMillis);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.sudokuclassicwithcamera.core.vision.GrayImage;
+import com.example.sudokuclassicwithcamera.core.vision.GridDetector;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Shrinks a photo before it is uploaded for recognition: crop to the detected grid,
+ * downscale to what the recognizer needs and encode as JPEG.
+ */
+public class ImagePreparer {
+
+    private static final String TAG = "ImagePreparer";
+
+    public static final String MIME_TYPE = "image/jpeg";
+    private static final int MAX_SIDE = 1024;      // px, digits stay ~40 px tall in a cropped grid
+    private static final int DETECT_SIDE = 640;    // px, the grid detector works at this size anyway
+    private static final int JPEG_QUALITY = 85;
+    private static final float CROP_MARGIN = 0.06f; // of the grid size, keeps the outer border in view
+
+    /**
+     * Crop, scale and encode on the calling thread (not the main thread), the source bitmap is left untouched
+     */
+    public static Prepared prepare(Bitmap source) {
+        long start = SystemClock.elapsedRealtime();
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        // Crop to the grid if one is found, the full photo otherwise
+        Bitmap cropped = source;
+        GrayImage preview = grayscale(source, DETECT_SIDE);
+        float[] corners = GridDetector.detect(preview);
+        if (corners != null) {
+            // Corners are in preview pixels, the crop is taken from the full-size source
+            int[] box = GridDetector.cropBounds(corners, preview.getWidth(), width, height, CROP_MARGIN);
+            if (box[2] - box[0] < width || box[3] - box[1] < height) {
+                cropped = Bitmap.createBitmap(source, box[0], box[1], box[2] - box[0], box[3] - box[1]);
+            }
+        }
+
+        Bitmap scaled = scaleDown(cropped, MAX_SIDE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+
+        Prepared prepared = new Prepared(out.toByteArray(), scaled.getWidth(), scaled.getHeight(),
+                corners != null, source.getByteCount(), SystemClock.elapsedRealtime() - start);
+        if (scaled != cropped) scaled.recycle();
+        if (cropped != source) cropped.recycle();
+
+        Log.d(TAG, "Prepared " + width + "x" + height + " -> " + prepared.width + "x" + prepared.height
+                + (prepared.cropped ? " (cropped to grid)" : "") + ": " + prepared.bytes.length + " bytes, "
+                + prepared.getBytesBelowDecoded() + " below the decoded bitmap, " + prepared.encodeMillis + " ms");
+        return prepared;
+    }
+
+    /**
+     * JPEG of a grayscale image, e.g. a mosaic of single cells
+     */
+    public static byte[] encode(GrayImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] argb = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int v = image.get(x, y);
+                argb[y * w + x] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        Bitmap bitmap = Bitmap.createBitmap(argb, w, h, Bitmap.Config.ARGB_8888);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        bitmap.recycle();
+        return out.toByteArray();
+    }
+
+    /**
+     * Luminance of the bitmap scaled so its longest side is at most maxSide
+     */
+    public static GrayImage grayscale(Bitmap bitmap, int maxSide) {
+        Bitmap scaled = scaleDown(bitmap, maxSide);
+        int w = scaled.getWidth();
+        int h = scaled.getHeight();
+        int[] argb = new int[w * h];
+        scaled.getPixels(argb, 0, w, 0, 0, w, h);
+        if (scaled != bitmap) scaled.recycle();
+        return GrayImage.fromArgb(argb, w, h);
+    }
+
+    // --Same bitmap if it already fits
+    private static Bitmap scaleDown(Bitmap bitmap, int maxSide) {
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        float scale = (float) maxSide / Math.max(w, h);
+        if (scale >= 1f) return bitmap;
+        return Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(w * scale)),
+                Math.max(1, Math.round(h * scale)), true);
+    }
+
+    /**
+     * Encoded image plus the numbers for logging
+     */
+    public static class Prepared {
+        public final byte[] bytes;
+        public final int width;
+        public final int height;
+        public final boolean cropped;
+        public final long sourceBytes;   // in-memory size of the source bitmap
+        public final long encodeMillis;
+
+        Prepared(byte[] bytes, int width, int height, boolean cropped, long sourceBytes, long encodeMillis) {
+            this.bytes = bytes;
+            this.width = width;
+            this.height = height;
+            this.cropped = cropped;
+            this.sourceBytes = sourceBytes;
+            this.encodeMillis = encodeMillis;
+        }
+
+        // --Decoded bitmap size minus the JPEG, not a saving against any earlier upload format
+        public long getBytesBelowDecoded() {
+            return sourceBytes - bytes.length;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.sudokuclassicwithcamera.core.vision.ScanResult;
+import com.example.sudokuclassicwithcamera.core.vision.SudokuScanner;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * On-device puzzle recognition, no network round trip. Needs the
+ * {@link TfliteDigitClassifier#MODEL_ASSET} model in the app assets, see {@link #isAvailable}.
+ */
+public class LocalScanner {
+
+    private static final String TAG = "LocalScanner";
+    private static final int MAX_SIDE = 1280; // px, plenty for a grid that fills part of the photo
+
+    private static Boolean available;
+    private static SudokuScanner scanner; // guarded by the class lock
+
+    /**
+     * True if the digit model is bundled, checked once
+     */
+    public static synchronized boolean isAvailable(Context context) {
+        if (available == null) {
+            try {
+                String[] assets = context.getAssets().list("");
+                available = assets != null && Arrays.asList(assets).contains(TfliteDigitClassifier.MODEL_ASSET);
+            } catch (IOException e) {
+                available = false;
+            }
+            if (available) {
+                Log.d(TAG, "Digit model available");
+            } else {
+                Log.i(TAG, "No " + TfliteDigitClassifier.MODEL_ASSET + " in assets, scans go to Gemini only");
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Blocking scan with per-cell confidence on the calling thread (not the main thread),
+     * null if no grid was found or the model failed
+     */
+    public static ScanResult recognize(Context context, Bitmap bitmap) {
+        long start = SystemClock.elapsedRealtime();
+        ScanResult result;
+        try {
+            synchronized (LocalScanner.class) { // the scanner reuses its buffers
+                if (scanner == null) {
+                    scanner = new SudokuScanner(new TfliteDigitClassifier(context.getApplicationContext()));
+                }
+                result = scanner.recognize(ImagePreparer.grayscale(bitmap, MAX_SIDE));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Local scan failed", e);
+            result = null;
+        }
+
+        Log.d(TAG, "Local scan took " + (SystemClock.elapsedRealtime() - start) + " ms, grid found: " + (result != null));
+        return result;
+    }
+}
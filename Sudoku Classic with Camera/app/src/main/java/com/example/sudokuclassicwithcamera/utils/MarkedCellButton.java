@@ -0,0 +1,78 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+
+import com.example.sudokuclassicwithcamera.R;
+import com.google.android.material.button.MaterialButton;
+
+/**
+ * Grid cell button that also draws pencil marks: while the cell shows no digit, each marked
+ * digit is drawn in its own ninth of the cell. The layout of the nine slots is computed once
+ * per size change, so a redraw is at most nine drawText calls and nothing is allocated.
+ */
+public class MarkedCellButton extends MaterialButton {
+
+    private static final String[] DIGITS = {"1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    private static final float MARK_SCALE = 0.26f; // mark text size relative to the cell
+
+    private final Paint markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float[] slotX = new float[9];
+    private final float[] slotY = new float[9];
+    private int marks;
+
+    public MarkedCellButton(Context context) {
+        super(context);
+        init();
+    }
+
+    public MarkedCellButton(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public MarkedCellButton(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        markPaint.setTextAlign(Paint.Align.CENTER);
+        markPaint.setColor(getResources().getColor(R.color.gray));
+    }
+
+    // --Show a 9-bit mark mask, redraws only if it changed
+    public void setMarks(int marks) {
+        if (this.marks == marks) return;
+        this.marks = marks;
+        invalidate();
+    }
+
+    public int getMarks() {
+        return marks;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        float size = Math.min(w, h);
+        markPaint.setTextSize(size * MARK_SCALE);
+        // Centre the text vertically on each slot
+        float baseline = -(markPaint.ascent() + markPaint.descent()) / 2f;
+        for (int i = 0; i < 9; i++) {
+            slotX[i] = w * (i % 3 * 2 + 1) / 6f;
+            slotY[i] = h * (i / 3 * 2 + 1) / 6f + baseline;
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (marks == 0 || getText().length() > 0) return;
+        for (int i = 0; i < 9; i++) {
+            if ((marks & (1 << i)) != 0) canvas.drawText(DIGITS[i], slotX[i], slotY[i], markPaint);
+        }
+    }
+}
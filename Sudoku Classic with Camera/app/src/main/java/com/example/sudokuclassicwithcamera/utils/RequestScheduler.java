@@ -0,0 +1,264 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs network requests on a small bounded pool with "latest wins" semantics:
+ * <ul>
+ *   <li>a new request cancels the one submitted before it on the same channel (its in-flight call
+ *   is cancelled through {@link Job#setOnCancel}) unless both have the same key; its callers get
+ *   {@link Callback#onError} with a {@link CancellationException},</li>
+ *   <li>requests with the same key while one is in flight share its result instead of running twice,</li>
+ *   <li>callbacks run on the callback executor and are dropped once their own handle is cancelled,</li>
+ *   <li>the queue is bounded, a full queue fails the request right away.</li>
+ * </ul>
+ * Counters are available through {@link #getStats()}.
+ */
+public class RequestScheduler<T> {
+
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final Map<String, Job<T>> inFlight = new HashMap<>();
+    private final Map<String, Job<T>> latest = new HashMap<>(); // per channel
+
+    private long submitted;
+    private long deduplicated;
+    private long superseded;
+    private long rejected;
+    private long completed;
+    private long failed;
+
+    public RequestScheduler(int threads, int queueCapacity, Executor callbackExecutor) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Schedule the task on the default channel, see {@link #submit(String, String, Task, Callback)}
+     */
+    public Handle submit(String key, Task<T> task, Callback<T> callback) {
+        return submit("", key, task, callback);
+    }
+
+    /**
+     * Schedule the task, or join the in-flight task with the same key; only requests of the
+     * same channel supersede each other
+     */
+    public synchronized Handle submit(String channel, String key, Task<T> task, Callback<T> callback) {
+        submitted++;
+        Handle handle = new Handle(callback);
+
+        Job<T> running = inFlight.get(key);
+        if (running != null && !running.isCancelled()) {
+            deduplicated++;
+            running.subscribers.add(handle);
+            handle.job = running;
+            return handle;
+        }
+
+        Job<T> previous = latest.get(channel);
+        if (previous != null && !previous.isDone() && !previous.isCancelled()) {
+            superseded++;
+            cancelJob(previous);
+            notifyCancelled(previous);
+        }
+
+        Job<T> job = new Job<>(key);
+        job.subscribers.add(handle);
+        handle.job = job;
+        try {
+            job.future = executor.submit(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            rejected++;
+            job.done = true;
+            callbackExecutor.execute(() -> {
+                if (!handle.cancelled) callback.onError(new RejectedExecutionException("Too many pending requests"));
+            });
+            return handle;
+        }
+
+        inFlight.put(key, job);
+        latest.put(channel, job);
+        return handle;
+    }
+
+    private void run(Job<T> job, Task<T> task) {
+        T result = null;
+        Exception error = null;
+        if (!job.isCancelled()) {
+            try {
+                result = task.run(job);
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+
+        List<Handle> subscribers;
+        synchronized (this) {
+            job.done = true;
+            if (inFlight.get(job.key) == job) inFlight.remove(job.key);
+            if (job.isCancelled()) return;
+            if (error != null) failed++;
+            else completed++;
+            subscribers = new ArrayList<>(job.subscribers);
+        }
+
+        T finalResult = result;
+        Exception finalError = error;
+        for (Handle handle : subscribers) {
+            callbackExecutor.execute(() -> {
+                if (handle.cancelled) return;
+                if (finalError != null) handle.callback.onError(finalError);
+                else handle.callback.onResult(finalResult);
+            });
+        }
+    }
+
+    // --Tell the callers of a superseded job, it never reports anything itself once cancelled
+    private synchronized void notifyCancelled(Job<T> job) {
+        for (Handle handle : new ArrayList<>(job.subscribers)) {
+            callbackExecutor.execute(() -> {
+                if (!handle.cancelled) handle.callback.onError(new CancellationException("Superseded by a newer request"));
+            });
+        }
+        job.subscribers.clear();
+    }
+
+    // --A subscriber left, the job is only cancelled when nobody is waiting for it
+    private synchronized void unsubscribe(Handle handle) {
+        Job<T> job = handle.job;
+        if (job == null) return;
+        job.subscribers.remove(handle);
+        if (job.subscribers.isEmpty() && !job.isDone()) {
+            cancelJob(job);
+        }
+    }
+
+    // --Jobs cancelled before they started never run, so they are cleaned up here
+    private synchronized void cancelJob(Job<T> job) {
+        job.cancel();
+        if (inFlight.get(job.key) == job) inFlight.remove(job.key);
+        executor.purge();
+    }
+
+    /**
+     * Counters since creation, for logging
+     */
+    public synchronized String getStats() {
+        return "submitted=" + submitted + ", deduplicated=" + deduplicated + ", superseded=" + superseded
+                + ", rejected=" + rejected + ", completed=" + completed + ", failed=" + failed
+                + ", queued=" + executor.getQueue().size() + ", active=" + executor.getActiveCount();
+    }
+
+    public synchronized long getSuperseded() {
+        return superseded;
+    }
+
+    public synchronized long getDeduplicated() {
+        return deduplicated;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * One caller's view of a request
+     */
+    public class Handle {
+        private final Callback<T> callback;
+        private volatile boolean cancelled;
+        private Job<T> job;
+
+        Handle(Callback<T> callback) {
+            this.callback = callback;
+        }
+
+        /**
+         * Drop this caller's callback, the request itself stops if no other caller shares it
+         */
+        public void cancel() {
+            cancelled = true;
+            unsubscribe(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * A scheduled request as seen by its task
+     */
+    public static class Job<T> {
+        private final String key;
+        private final List<RequestScheduler<T>.Handle> subscribers = new ArrayList<>();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private Runnable onCancel;
+        private Future<?> future;
+
+        Job(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Hook that aborts the work in progress, e.g. cancelling the OkHttp call; runs at once if already cancelled
+         */
+        public void setOnCancel(Runnable onCancel) {
+            boolean runNow;
+            synchronized (this) {
+                this.onCancel = onCancel;
+                runNow = cancelled;
+            }
+            if (runNow && onCancel != null) onCancel.run();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        void cancel() {
+            Runnable hook;
+            synchronized (this) {
+                if (cancelled) return;
+                cancelled = true;
+                hook = onCancel;
+            }
+            if (hook != null) hook.run();
+            if (future != null) future.cancel(false); // frees its queue slot if it has not started
+        }
+    }
+
+    /**
+     * The work, run on a pool thread; should check {@link Job#isCancelled} between stages
+     */
+    public interface Task<T> {
+        T run(Job<T> job) throws Exception;
+    }
+
+    /**
+     * Result delivery, on the callback executor
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+
+        void onError(Exception e);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries a request on 429, 5xx and I/O failures with jittered exponential backoff
+ * ("full jitter": a random delay up to base * 2^attempt), honouring Retry-After, until the
+ * attempts or the overall deadline run out. Each attempt's call timeout is cut to the time left.
+ * <p>
+ * The request body must be replayable, which holds for everything built in memory.
+ */
+public class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 500, 4_000, 45_000);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long deadlineMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, long deadlineMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Execute on the calling thread, returns the last response (successful or not) or throws the last failure
+     */
+    public Response execute(OkHttpClient client, Request request) throws IOException {
+        return execute(client, request, null);
+    }
+
+    /**
+     * Same, handing every attempt's call to onCall first so the caller can cancel it;
+     * a cancelled call ends the retries
+     */
+    public Response execute(OkHttpClient client, Request request, Consumer<Call> onCall) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        IOException failure = null;
+
+        for (int attempt = 0; ; attempt++) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                throw failure != null ? failure : new InterruptedIOException("Deadline exceeded");
+            }
+
+            Call call = client.newCall(request);
+            call.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+            if (onCall != null) onCall.accept(call);
+
+            Response response = null;
+            long retryAfter = -1;
+            try {
+                response = call.execute();
+                if (!isRetryable(response.code())) return response;
+                retryAfter = retryAfterMillis(response);
+            } catch (IOException e) {
+                if (call.isCanceled()) throw e;
+                failure = e;
+            }
+
+            // Give up with what we have if another attempt would not fit
+            long delay = retryAfter >= 0 ? retryAfter : backoff(attempt);
+            boolean last = attempt + 1 >= maxAttempts
+                    || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) >= deadline;
+            if (last) {
+                if (response != null) return response;
+                throw failure;
+            }
+            if (response != null) response.close();
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while backing off");
+            }
+        }
+    }
+
+    // --429 Too Many Requests and the transient 5xx codes
+    static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    // --Retry-After in seconds, -1 if absent or not a number (HTTP dates are treated as absent)
+    private static long retryAfterMillis(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
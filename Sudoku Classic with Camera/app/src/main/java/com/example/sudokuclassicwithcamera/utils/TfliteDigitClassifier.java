@@ -0,0 +1,70 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import android.content.Context;
+
+import com.example.sudokuclassicwithcamera.core.vision.DigitClassifier;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.support.common.FileUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Digit classifier backed by the bundled {@code digits.tflite} model:
+ * input [count, 28, 28, 1] floats (ink = 1), output [count, 10] scores for the digits 0-9.
+ */
+public class TfliteDigitClassifier implements DigitClassifier, Closeable {
+
+    public static final String MODEL_ASSET = "digits.tflite";
+
+    private static final int PIXELS = INPUT_SIZE * INPUT_SIZE;
+
+    private final Interpreter interpreter;
+    private final ByteBuffer input;
+    private int batch = -1;
+
+    public TfliteDigitClassifier(Context context) throws IOException {
+        Interpreter.Options options = new Interpreter.Options().setNumThreads(2);
+        interpreter = new Interpreter(FileUtil.loadMappedFile(context, MODEL_ASSET), options);
+        input = ByteBuffer.allocateDirect(81 * PIXELS * 4).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void classify(float[] images, int count, int[] out, float[] confidence) {
+        // One interpreter call for the whole batch, resized only when the clue count changes
+        if (count != batch) {
+            interpreter.resizeInput(0, new int[]{count, INPUT_SIZE, INPUT_SIZE, 1});
+            interpreter.allocateTensors();
+            batch = count;
+        }
+
+        input.clear();
+        FloatBuffer floats = input.asFloatBuffer();
+        floats.put(images, 0, count * PIXELS);
+        input.limit(count * PIXELS * 4);
+
+        float[][] scores = new float[count][10];
+        interpreter.run(input, scores);
+
+        for (int i = 0; i < count; i++) {
+            // A filled cell is never 0, so only 1-9 compete and their softmax scores are renormalised
+            int best = 1;
+            float sum = scores[i][1];
+            for (int digit = 2; digit <= 9; digit++) {
+                if (scores[i][digit] > scores[i][best]) best = digit;
+                sum += scores[i][digit];
+            }
+            out[i] = best;
+            confidence[i] = sum > 0 ? scores[i][best] / sum : 0f;
+        }
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+    }
+}
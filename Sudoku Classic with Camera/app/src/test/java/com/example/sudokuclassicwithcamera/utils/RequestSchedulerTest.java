@@ -0,0 +1,151 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RequestScheduler}, run on the host JVM with callbacks delivered inline.
+ */
+public class RequestSchedulerTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch deliveredOne = new CountDownLatch(1);
+
+    private RequestScheduler.Callback<String> record(String name) {
+        return new RequestScheduler.Callback<String>() {
+            @Override
+            public void onResult(String result) {
+                delivered.add(name + "=" + result);
+                deliveredOne.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                delivered.add(name + " failed");
+                deliveredOne.countDown();
+            }
+        };
+    }
+
+    // --Task that blocks until released or cancelled, like a slow network call
+    private static RequestScheduler.Task<String> blocking(CountDownLatch started, CountDownLatch release,
+                                                          String result, AtomicInteger cancels) {
+        return job -> {
+            CountDownLatch cancelled = new CountDownLatch(1);
+            job.setOnCancel(() -> {
+                cancels.incrementAndGet();
+                cancelled.countDown();
+            });
+            started.countDown();
+            while (release.getCount() > 0 && cancelled.getCount() > 0) {
+                Thread.sleep(5);
+            }
+            if (job.isCancelled()) throw new java.io.IOException("Canceled");
+            return result;
+        };
+    }
+
+    @Test
+    public void newerRequest_supersedesStaleOne() throws Exception {
+        RequestScheduler<String> scheduler = new RequestScheduler<>(2, 4, Runnable::run);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger cancels = new AtomicInteger();
+
+        scheduler.submit("first", blocking(started, new CountDownLatch(1), "old", cancels), record("a"));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        scheduler.submit("second", job -> "new", record("b"));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (delivered.size() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        Thread.sleep(50); // the cancelled task unwinds without a second callback
+        assertEquals(1, cancels.get());
+        assertEquals(1, scheduler.getSuperseded());
+        assertEquals(2, delivered.size());
+        assertTrue(delivered.contains("a failed")); // told it was superseded
+        assertTrue(delivered.contains("b=new"));
+    }
+
+    @Test
+    public void otherChannel_doesNotSupersede() throws Exception {
+        RequestScheduler<String> scheduler = new RequestScheduler<>(2, 4, Runnable::run);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger cancels = new AtomicInteger();
+
+        scheduler.submit("cells", "mosaic", blocking(started, release, "digits", cancels), record("a"));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        scheduler.submit("photo", "photo", job -> "grid", record("b"));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (delivered.size() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(0, cancels.get());
+        assertEquals(0, scheduler.getSuperseded());
+        assertTrue(delivered.contains("a=digits"));
+        assertTrue(delivered.contains("b=grid"));
+    }
+
+    @Test
+    public void sameKeyInFlight_runsOnceForBoth() throws Exception {
+        RequestScheduler<String> scheduler = new RequestScheduler<>(2, 4, Runnable::run);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger cancels = new AtomicInteger();
+        RequestScheduler.Task<String> task = blocking(started, release, "grid", cancels);
+
+        scheduler.submit("photo", job -> {
+            runs.incrementAndGet();
+            return task.run(job);
+        }, record("a"));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        scheduler.submit("photo", job -> {
+            runs.incrementAndGet();
+            return "second run";
+        }, record("b"));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (delivered.size() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(1, runs.get());
+        assertEquals(0, cancels.get());
+        assertEquals(1, scheduler.getDeduplicated());
+        assertTrue(delivered.contains("a=grid"));
+        assertTrue(delivered.contains("b=grid"));
+    }
+
+    @Test
+    public void cancelledHandle_dropsCallbackAndStopsWork() throws Exception {
+        RequestScheduler<String> scheduler = new RequestScheduler<>(1, 4, Runnable::run);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger cancels = new AtomicInteger();
+
+        RequestScheduler<String>.Handle handle =
+                scheduler.submit("photo", blocking(started, new CountDownLatch(1), "grid", cancels), record("a"));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        handle.cancel();
+
+        Thread.sleep(50);
+        assertEquals(1, cancels.get());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void failure_isDeliveredAsError() throws Exception {
+        RequestScheduler<String> scheduler = new RequestScheduler<>(1, 4, Runnable::run);
+        scheduler.submit("photo", job -> {
+            throw new IllegalStateException("boom");
+        }, record("a"));
+
+        assertTrue(deliveredOne.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("a failed"), delivered);
+        assertTrue(scheduler.getStats().contains("failed=1"));
+    }
+}
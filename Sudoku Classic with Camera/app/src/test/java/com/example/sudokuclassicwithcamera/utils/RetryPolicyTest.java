@@ -0,0 +1,126 @@
+package com.example.sudokuclassicwithcamera.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link RetryPolicy} and {@link HttpClients} against a local stand-in
+ * for the Gemini endpoint, run on the host JVM.
+ */
+public class RetryPolicyTest {
+
+    private static final String ANSWER = "{\"candidates\":[]}";
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = HttpClients.shared();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private Request post() {
+        return new Request.Builder()
+                .url(server.url("/v1beta/models/test:generateContent"))
+                .post(RequestBody.create("{\"contents\":[]}", MediaType.get("application/json")))
+                .build();
+    }
+
+    @Test
+    public void serverErrorThenSuccess_retriesWithSameBody() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(ANSWER));
+
+        try (Response response = new RetryPolicy(3, 10, 50, 5_000).execute(client, post())) {
+            assertEquals(200, response.code());
+            assertEquals(ANSWER, response.body().string());
+        }
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        RecordedRequest retry = server.takeRequest();
+        assertEquals("{\"contents\":[]}", retry.getBody().readUtf8());
+    }
+
+    @Test
+    public void tooManyRequests_honoursRetryAfter() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "0"));
+        server.enqueue(new MockResponse().setBody(ANSWER));
+
+        try (Response response = new RetryPolicy(2, 10_000, 10_000, 5_000).execute(client, post())) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void clientError_isNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+
+        try (Response response = new RetryPolicy(3, 10, 50, 5_000).execute(client, post())) {
+            assertEquals(400, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void persistentFailure_stopsAtAttemptLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+
+        try (Response response = new RetryPolicy(3, 1, 5, 5_000).execute(client, post())) {
+            assertEquals(500, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void deadline_boundsSlowServer() {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        long start = System.nanoTime();
+        try {
+            new RetryPolicy(3, 10, 50, 300).execute(client, post()).close();
+            fail("Expected a timeout");
+        } catch (IOException expected) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 2_000);
+        }
+    }
+
+    @Test
+    public void connections_areReused() throws Exception {
+        server.enqueue(new MockResponse().setBody(ANSWER));
+        server.enqueue(new MockResponse().setBody(ANSWER));
+
+        for (int i = 0; i < 2; i++) {
+            try (Response response = RetryPolicy.DEFAULT.execute(client, post())) {
+                response.body().string();
+            }
+        }
+        server.takeRequest();
+        assertEquals(1, server.takeRequest().getSequenceNumber()); // second exchange on the first connection
+    }
+}
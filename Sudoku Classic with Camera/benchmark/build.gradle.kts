@@ -0,0 +1,31 @@
+// JMH benchmarks for the core module, run on a plain JVM with ./gradlew :benchmark:jmh
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh("org.json:json:20250517") // baseline for ResponseParserBenchmark, same version as the app
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc") // reports allocation rate per operation
+    resultFormat = "JSON"
+}
+
+// Accuracy and latency of the on-device scanner on the labelled photos: ./gradlew :benchmark:scanHarness
+tasks.register<JavaExec>("scanHarness") {
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.sudokuclassicwithcamera.benchmark.ScanHarness"
+    args(rootProject.file("../Images").absolutePath)
+}
@@ -0,0 +1,47 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.SolverEngine;
+import com.example.sudokuclassicwithcamera.core.SudokuSolverCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full puzzle generation for each difficulty level.
+ */
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+
+    @Param({"easy", "medium", "hard"})
+    public String difficulty;
+
+    @Param({"BITMASK", "DLX"})
+    public SolverEngine engine;
+
+    @Setup
+    public void setup() {
+        SudokuSolverCore.setSolverEngine(engine);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int[][] generate() {
+        return SudokuSolverCore.generateRandomSudoku(difficulty);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[][] generateLatency() {
+        return SudokuSolverCore.generateRandomSudoku(difficulty);
+    }
+}
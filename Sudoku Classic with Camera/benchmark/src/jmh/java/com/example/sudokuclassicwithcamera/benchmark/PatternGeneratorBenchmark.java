@@ -0,0 +1,46 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.GeneratedPuzzle;
+import com.example.sudokuclassicwithcamera.core.ParallelPuzzleGenerator;
+import com.example.sudokuclassicwithcamera.core.Symmetry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symmetric and exact-clue generation. Low clue counts may run out of attempts, so the
+ * tear-down prints how many puzzles actually reached the count next to the times.
+ */
+@State(Scope.Thread)
+public class PatternGeneratorBenchmark {
+
+    @Param({"NONE", "ROTATIONAL", "MIRROR", "DIAGONAL"})
+    public Symmetry symmetry;
+
+    @Param({"0", "24", "22", "20"})
+    public int clues;
+
+    private long seed;
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GeneratedPuzzle generate() {
+        return ParallelPuzzleGenerator.shared().generate("medium", seed++, symmetry, clues);
+    }
+
+    @TearDown
+    public void report() {
+        System.out.println();
+        System.out.print(ParallelPuzzleGenerator.shared().metrics().report());
+        ParallelPuzzleGenerator.shared().metrics().reset();
+    }
+}
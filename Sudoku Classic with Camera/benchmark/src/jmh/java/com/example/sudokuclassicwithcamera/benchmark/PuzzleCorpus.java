@@ -0,0 +1,51 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the checked-in puzzle files from {@code src/jmh/resources/puzzles}.
+ */
+public final class PuzzleCorpus {
+    private PuzzleCorpus() {} // Prevent instantiation
+
+    // --Load every puzzle of a corpus file (easy, hard, minimal)
+    public static SudokuGrid[] load(String name) {
+        String path = "/puzzles/" + name + ".txt";
+        InputStream in = PuzzleCorpus.class.getResourceAsStream(path);
+        if (in == null) throw new IllegalArgumentException("Unknown corpus: " + name);
+
+        List<SudokuGrid> puzzles = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                puzzles.add(parse(line));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return puzzles.toArray(new SudokuGrid[0]);
+    }
+
+    // --Parse an 81 character puzzle line, '.' and '0' are empty cells
+    public static SudokuGrid parse(String line) {
+        if (line.length() != SudokuGrid.CELLS) throw new IllegalArgumentException("Expected 81 cells: " + line);
+
+        SudokuGrid grid = new SudokuGrid();
+        for (int i = 0; i < SudokuGrid.CELLS; i++) {
+            char c = line.charAt(i);
+            grid.set(i, (c >= '1' && c <= '9') ? c - '0' : 0);
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.LogicalSolver;
+import com.example.sudokuclassicwithcamera.core.PuzzleRating;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Technique-based grading that the generator runs on every carved puzzle.
+ */
+@State(Scope.Thread)
+public class RatingBenchmark {
+
+    @Param({"easy", "hard", "minimal"})
+    public String corpus;
+
+    private final LogicalSolver solver = new LogicalSolver();
+    private SudokuGrid[] puzzles;
+    private int next;
+
+    @Setup
+    public void setup() {
+        puzzles = PuzzleCorpus.load(corpus);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public PuzzleRating rate() {
+        return rateNext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PuzzleRating rateLatency() {
+        return rateNext();
+    }
+
+    private PuzzleRating rateNext() {
+        SudokuGrid puzzle = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return solver.rate(puzzle);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.GeminiResponseReader;
+import com.example.sudokuclassicwithcamera.core.MatrixParser;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a full generateContent response into a grid: the streaming reader and single-pass
+ * parser against the previous JSONObject envelope + regex clean-up + JSONArray decoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseParserBenchmark {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    @Param({"canonical", "fenced", "commentary"})
+    public String style;
+
+    private String response;
+
+    @Setup
+    public void setup() {
+        StringBuilder grid = new StringBuilder("[");
+        for (int r = 0; r < 9; r++) {
+            if (r > 0) grid.append(",\n ");
+            grid.append('[');
+            for (int c = 0; c < 9; c++) {
+                if (c > 0) grid.append(", ");
+                grid.append(PUZZLE.charAt(r * 9 + c));
+            }
+            grid.append(']');
+        }
+        grid.append(']');
+
+        String text;
+        switch (style) {
+            case "fenced": text = "```json\n" + grid + "\n```"; break;
+            case "commentary": text = "Here is the Sudoku grid extracted from the image:\n" + grid
+                    + "\nEmpty cells are shown as 0."; break;
+            default: text = grid.toString(); break;
+        }
+
+        response = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":" + JSONObject.quote(text)
+                + "}],\"role\":\"model\"},\"finishReason\":\"STOP\",\"avgLogprobs\":-0.0123}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":1290,\"candidatesTokenCount\":170,"
+                + "\"totalTokenCount\":1460,\"promptTokensDetails\":[{\"modality\":\"TEXT\",\"tokenCount\":30},"
+                + "{\"modality\":\"IMAGE\",\"tokenCount\":1260}]},\"modelVersion\":\"gemini-2.5-flash-lite\"}";
+    }
+
+    @Benchmark
+    public Object streaming() throws IOException {
+        String text = new GeminiResponseReader(new StringReader(response), 16 * 1024).readText();
+        return MatrixParser.parse(text).getGrid();
+    }
+
+    @Benchmark
+    public Object legacy() {
+        JSONObject root = new JSONObject(response);
+        String text = root.getJSONArray("candidates").getJSONObject(0).getJSONObject("content")
+                .getJSONArray("parts").getJSONObject(0).getString("text").trim()
+                .replace("```json", "").replace("```", "").trim();
+
+        String cleaned = text.replaceAll("[^\\[\\],0-9]", "").trim();
+        if (!cleaned.startsWith("[")) cleaned = "[" + cleaned;
+        if (!cleaned.endsWith("]")) cleaned = cleaned + "]";
+
+        JSONArray outer = new JSONArray(cleaned);
+        int[][] matrix = new int[outer.length()][9];
+        for (int i = 0; i < outer.length(); i++) {
+            JSONArray inner = outer.getJSONArray(i);
+            for (int j = 0; j < 9 && j < inner.length(); j++) {
+                matrix[i][j] = inner.optInt(j, 0);
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.vision.DigitClassifier;
+import com.example.sudokuclassicwithcamera.core.vision.GrayImage;
+import com.example.sudokuclassicwithcamera.core.vision.SudokuScanner;
+import com.example.sudokuclassicwithcamera.core.vision.ScanResult;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Scores the on-device scan pipeline against the labelled photos in {@code Images/}:
+ * cell accuracy, filled/empty detection (independent of the classifier), digit accuracy and scan latency.
+ * The JVM run uses {@link TemplateDigitClassifier}, so its digit accuracy is a floor for the TFLite model.
+ * <p>
+ * Run with {@code ./gradlew :benchmark:scanHarness}, or pass the image folder as the first argument.
+ */
+public final class ScanHarness {
+
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+    private static final float CONFIDENCE = 0.9f; // the app's local/remote gate, see RecognitionRouter
+
+    public static void main(String[] args) throws IOException {
+        File folder = new File(args.length > 0 ? args[0] : "../Images");
+        DigitClassifier classifier = new TemplateDigitClassifier();
+        SudokuScanner scanner = new SudokuScanner(classifier);
+
+        int totalCells = 0;
+        int correctCells = 0;
+        int correctMask = 0;
+        int totalDigits = 0;
+        int correctDigits = 0;
+        int totalConfident = 0;
+        int correctConfident = 0;
+        double totalMillis = 0;
+        int images = 0;
+
+        for (Map.Entry<String, String> entry : loadLabels().entrySet()) {
+            File file = new File(folder, entry.getKey());
+            BufferedImage photo = ImageIO.read(file);
+            if (photo == null) {
+                System.out.println(entry.getKey() + ": cannot read " + file.getAbsolutePath());
+                continue;
+            }
+            int w = photo.getWidth();
+            int h = photo.getHeight();
+            GrayImage image = GrayImage.fromArgb(photo.getRGB(0, 0, w, h, null, 0, w), w, h);
+
+            for (int i = 0; i < WARMUP; i++) scanner.scan(image);
+            long start = System.nanoTime();
+            int[][] grid = null;
+            for (int i = 0; i < RUNS; i++) grid = scanner.scan(image);
+            double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+            ScanResult result = scanner.recognize(image);
+
+            String expected = entry.getValue();
+            int cells = 0;
+            int mask = 0;
+            int digits = 0;
+            int digitsRight = 0;
+            int confident = 0;
+            int confidentRight = 0;
+            StringBuilder got = new StringBuilder();
+            for (int cell = 0; cell < 81; cell++) {
+                int want = expected.charAt(cell) == '.' ? 0 : expected.charAt(cell) - '0';
+                int have = grid == null ? 0 : grid[cell / 9][cell % 9];
+                got.append(have == 0 ? '.' : (char) ('0' + have));
+                if (want == have) cells++;
+                if ((want == 0) == (have == 0)) mask++;
+                if (want != 0) {
+                    digits++;
+                    if (want == have) digitsRight++;
+                }
+                if (have != 0 && result.getConfidence(cell) >= CONFIDENCE) {
+                    confident++;
+                    if (want == have) confidentRight++;
+                }
+            }
+
+            System.out.printf("%-18s %s  cells %2d/81  filled/empty %2d/81  digits %2d/%2d  confident %2d/%2d  %.1f ms%n",
+                    entry.getKey(), grid == null ? "no grid" : "found  ", cells, mask, digitsRight, digits,
+                    confidentRight, confident, millis);
+            System.out.println("  expected " + expected);
+            System.out.println("  got      " + got);
+
+            totalCells += 81;
+            correctCells += cells;
+            correctMask += mask;
+            totalDigits += digits;
+            correctDigits += digitsRight;
+            totalConfident += confident;
+            correctConfident += confidentRight;
+            totalMillis += millis;
+            images++;
+        }
+
+        if (images == 0) return;
+        System.out.printf("TOTAL cell accuracy %.1f%%, filled/empty %.1f%%, digit accuracy %.1f%%, %.1f ms/scan (%.0f scans/s)%n",
+                100.0 * correctCells / totalCells, 100.0 * correctMask / totalCells, 100.0 * correctDigits / totalDigits,
+                totalMillis / images, 1000 * images / totalMillis);
+        System.out.printf("      %d digits above the confidence gate, %.1f%% of them right, the rest go to the remote model%n",
+                totalConfident, totalConfident == 0 ? 0.0 : 100.0 * correctConfident / totalConfident);
+    }
+
+    // --file name -> expected 81 character grid, from scans/labels.txt
+    private static Map<String, String> loadLabels() throws IOException {
+        Map<String, String> labels = new LinkedHashMap<>();
+        InputStream in = ScanHarness.class.getResourceAsStream("/scans/labels.txt");
+        if (in == null) throw new IOException("Missing /scans/labels.txt");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                int eq = line.lastIndexOf('=');
+                labels.put(line.substring(0, eq), line.substring(eq + 1));
+            }
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.SolverEngine;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.core.SudokuSolverCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves every corpus puzzle in turn with the selected engine.
+ */
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    @Param({"easy", "hard", "minimal"})
+    public String corpus;
+
+    @Param({"BITMASK", "DLX"})
+    public SolverEngine engine;
+
+    private SudokuGrid[] puzzles;
+    private final SudokuGrid work = new SudokuGrid();
+    private int next;
+
+    @Setup
+    public void setup() {
+        puzzles = PuzzleCorpus.load(corpus);
+        SudokuSolverCore.setSolverEngine(engine);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean solve() {
+        return solveNext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean solveLatency() {
+        return solveNext();
+    }
+
+    private boolean solveNext() {
+        SudokuGrid puzzle = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        work.copyFrom(puzzle);
+        return SudokuSolverCore.solveSudoku(work);
+    }
+}
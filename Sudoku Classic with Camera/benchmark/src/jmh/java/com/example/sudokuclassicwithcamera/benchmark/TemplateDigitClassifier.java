@@ -0,0 +1,138 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.vision.CellExtractor;
+import com.example.sudokuclassicwithcamera.core.vision.DigitClassifier;
+import com.example.sudokuclassicwithcamera.core.vision.GrayImage;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * JVM stand-in for the TFLite model: nearest template by cosine similarity, with templates
+ * rendered from the desktop fonts through the same normalisation as the scanned cells.
+ */
+public final class TemplateDigitClassifier implements DigitClassifier {
+
+    private static final int PIXELS = INPUT_SIZE * INPUT_SIZE;
+    private static final String[] FONTS = {"SansSerif", "Serif", "Monospaced", "Dialog"};
+    private static final int[] STYLES = {Font.PLAIN, Font.BOLD};
+    private static final int[] WEIGHTS = {0, 3}; // extra stroke width in pixels, newspaper print is heavy
+    private static final double TEMPERATURE = 0.03;
+
+    private final float[][] templates;
+    private final int[] digitOf;
+
+    public TemplateDigitClassifier() {
+        int count = FONTS.length * STYLES.length * WEIGHTS.length * 9;
+        templates = new float[count][PIXELS];
+        digitOf = new int[count];
+
+        int t = 0;
+        for (String font : FONTS) {
+            for (int style : STYLES) {
+                for (int weight : WEIGHTS) {
+                    for (int digit = 1; digit <= 9; digit++) {
+                        CellExtractor.normalizeGlyph(render(new Font(font, style, 64), weight, digit), templates[t], 0);
+                        prepare(templates[t]);
+                        digitOf[t++] = digit;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void classify(float[] images, int count, int[] out, float[] confidence) {
+        float[] input = new float[PIXELS];
+        float[] perDigit = new float[10];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(images, i * PIXELS, input, 0, PIXELS);
+            prepare(input);
+
+            // Best similarity per digit over all fonts
+            Arrays.fill(perDigit, -2);
+            for (int t = 0; t < templates.length; t++) {
+                float dot = 0;
+                float[] template = templates[t];
+                for (int p = 0; p < PIXELS; p++) {
+                    dot += template[p] * input[p];
+                }
+                perDigit[digitOf[t]] = Math.max(perDigit[digitOf[t]], dot);
+            }
+
+            int best = 1;
+            for (int digit = 2; digit <= 9; digit++) {
+                if (perDigit[digit] > perDigit[best]) best = digit;
+            }
+            out[i] = best;
+            confidence[i] = softmax(perDigit, best);
+        }
+    }
+
+    // --Softmax of the similarities at a temperature that makes a 0.1 margin a clear win
+    private static float softmax(float[] perDigit, int best) {
+        double sum = 0;
+        for (int digit = 1; digit <= 9; digit++) {
+            sum += Math.exp((perDigit[digit] - perDigit[best]) / TEMPERATURE);
+        }
+        return (float) (1 / sum);
+    }
+
+    private static GrayImage render(Font font, int weight, int digit) {
+        BufferedImage image = new BufferedImage(96, 96, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 96, 96);
+        g.setColor(Color.BLACK);
+        g.setFont(font);
+        FontMetrics metrics = g.getFontMetrics();
+        String text = String.valueOf(digit);
+        int x = (96 - metrics.stringWidth(text)) / 2;
+        int y = (96 + metrics.getAscent()) / 2 - 4;
+        for (int dy = 0; dy <= weight; dy++) {
+            for (int dx = 0; dx <= weight; dx++) {
+                g.drawString(text, x + dx - weight / 2, y + dy - weight / 2);
+            }
+        }
+        g.dispose();
+
+        int[] argb = image.getRGB(0, 0, 96, 96, null, 0, 96);
+        return GrayImage.fromArgb(argb, 96, 96);
+    }
+
+    // --3x3 blur, then zero mean and unit length, so the dot product is a tolerant cosine similarity
+    private static void prepare(float[] v) {
+        float[] blurred = new float[PIXELS];
+        for (int y = 0; y < INPUT_SIZE; y++) {
+            for (int x = 0; x < INPUT_SIZE; x++) {
+                float sum = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int ny = y + dy;
+                        int nx = x + dx;
+                        if (ny >= 0 && ny < INPUT_SIZE && nx >= 0 && nx < INPUT_SIZE) sum += v[ny * INPUT_SIZE + nx];
+                    }
+                }
+                blurred[y * INPUT_SIZE + x] = sum / 9;
+            }
+        }
+
+        float mean = 0;
+        for (float b : blurred) mean += b;
+        mean /= PIXELS;
+        float norm = 0;
+        for (int i = 0; i < PIXELS; i++) {
+            v[i] = blurred[i] - mean;
+            norm += v[i] * v[i];
+        }
+        norm = (float) Math.sqrt(norm);
+        if (norm == 0) return;
+        for (int i = 0; i < PIXELS; i++) v[i] /= norm;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.sudokuclassicwithcamera.benchmark;
+
+import com.example.sudokuclassicwithcamera.core.SolverEngine;
+import com.example.sudokuclassicwithcamera.core.SudokuGrid;
+import com.example.sudokuclassicwithcamera.core.SudokuSolverCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The "stop at 2" uniqueness check that sits inside puzzle generation.
+ */
+@State(Scope.Thread)
+public class UniquenessBenchmark {
+
+    @Param({"easy", "hard", "minimal"})
+    public String corpus;
+
+    @Param({"BITMASK", "DLX"})
+    public SolverEngine engine;
+
+    private SudokuGrid[] puzzles;
+    private int next;
+
+    @Setup
+    public void setup() {
+        puzzles = PuzzleCorpus.load(corpus);
+        SudokuSolverCore.setSolverEngine(engine);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int countSolutions() {
+        return countNext();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int countSolutionsLatency() {
+        return countNext();
+    }
+
+    private int countNext() {
+        SudokuGrid puzzle = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return SudokuSolverCore.countSolutions(puzzle, 2);
+    }
+}
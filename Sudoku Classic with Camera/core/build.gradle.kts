@@ -0,0 +1,13 @@
+// Android-free solver and generator code, shared by the app and the JVM benchmarks
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_17
+    targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,9 @@
+package com.example.sudokuclassicwithcamera;
+
+public final class Constants {
+    private Constants() {} // Prevent instantiation
+
+    public static final int easy = 36;
+    public static final int medium = 52; // 52 removals: with fewer, puzzles needing intersections or subsets are too rare to find
+    public static final int hard = 55;   // 55 removals: with fewer, puzzles needing fish or chains are too rare to find
+}
@@ -0,0 +1,241 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Sudoku solver that keeps per-row, per-column and per-box digit bitmasks,
+ * propagates naked and hidden singles and branches on the most constrained cell.
+ * <p>
+ * Instances reuse their working arrays between calls and are not thread-safe.
+ */
+public final class BitmaskSolver implements SudokuEngine {
+
+    private static final int ALL = 0x1FF; // digits 1-9 as bits 0-8
+
+    private static final int[] ROW_OF = SudokuGrid.ROW_OF;
+    private static final int[] COL_OF = SudokuGrid.COL_OF;
+    private static final int[] BOX_OF = SudokuGrid.BOX_OF;
+    private static final int[][] UNITS = SudokuGrid.UNITS;
+
+    private final byte[] input = new byte[81]; // int[][] givens converted for load
+    private final int[] cells = new int[81];
+    private final int[] rowUsed = new int[9];
+    private final int[] colUsed = new int[9];
+    private final int[] boxUsed = new int[9];
+    private final int[] trail = new int[81];
+    private final int[] solution = new int[81];
+    private int trailSize;
+    private int solutionCount;
+    private int solutionLimit;
+    private SearchControl control;
+
+    @Override
+    public boolean solve(int[][] grid) {
+        if (grid == null) return false;
+        SudokuGrid.load(grid, input);
+        if (!run(input, 1)) return false;
+
+        for (int cell = 0; cell < 81; cell++) {
+            grid[ROW_OF[cell]][COL_OF[cell]] = solution[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        if (grid == null) return 0;
+        SudokuGrid.load(grid, input);
+        run(input, limit);
+        return solutionCount;
+    }
+
+    @Override
+    public boolean solve(SudokuGrid grid) {
+        if (grid == null || !run(grid.cells, 1)) return false;
+
+        for (int cell = 0; cell < 81; cell++) {
+            grid.cells[cell] = (byte) solution[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(SudokuGrid grid, int limit) {
+        if (grid == null) return 0;
+        run(grid.cells, limit);
+        return solutionCount;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    // --Search up to limit solutions, returns true if at least one was found
+    private boolean run(byte[] givens, int limit) {
+        solutionCount = 0;
+        if (limit <= 0 || !load(givens)) return false;
+
+        solutionLimit = limit;
+        search();
+        return solutionCount > 0;
+    }
+
+    // --Reset the working state from the givens, returns false on conflicting or invalid givens
+    private boolean load(byte[] givens) {
+        for (int i = 0; i < 9; i++) {
+            rowUsed[i] = 0;
+            colUsed[i] = 0;
+            boxUsed[i] = 0;
+        }
+        trailSize = 0;
+        solutionCount = 0;
+
+        for (int cell = 0; cell < 81; cell++) {
+            cells[cell] = 0;
+            int num = givens[cell];
+            if (num == 0) continue;
+            if (num < 1 || num > 9) return false;
+
+            int bit = 1 << (num - 1);
+            if (((rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]) & bit) != 0) {
+                return false;
+            }
+            place(cell, num);
+        }
+        trailSize = 0; // givens are never undone
+        return true;
+    }
+
+    // --Depth-first search, returns true once the solution limit is reached
+    private boolean search() {
+        if (control != null && !control.onNode()) return true; // budget spent or cancelled
+
+        int mark = trailSize;
+        if (!propagate()) {
+            undo(mark);
+            return false;
+        }
+
+        // Pick the empty cell with the fewest candidates
+        int best = -1;
+        int bestCandidates = 0;
+        int bestCount = 10;
+        for (int cell = 0; cell < 81; cell++) {
+            if (cells[cell] != 0) continue;
+            int candidates = candidates(cell);
+            int count = Integer.bitCount(candidates);
+            if (count < bestCount) {
+                best = cell;
+                bestCandidates = candidates;
+                bestCount = count;
+                if (count == 2) break; // singles were already propagated
+            }
+        }
+
+        if (best == -1) {
+            if (solutionCount++ == 0) {
+                System.arraycopy(cells, 0, solution, 0, 81);
+            }
+            boolean done = solutionCount >= solutionLimit;
+            if (!done) undo(mark);
+            return done;
+        }
+
+        while (bestCandidates != 0) {
+            int bit = bestCandidates & -bestCandidates;
+            bestCandidates ^= bit;
+
+            int branchMark = trailSize;
+            place(best, Integer.numberOfTrailingZeros(bit) + 1);
+            if (search()) return true;
+            undo(branchMark);
+        }
+
+        undo(mark);
+        return false;
+    }
+
+    // --Apply naked and hidden singles until nothing changes, false on contradiction
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Naked singles
+            for (int cell = 0; cell < 81; cell++) {
+                if (cells[cell] != 0) continue;
+                int candidates = candidates(cell);
+                if (candidates == 0) return false;
+                if ((candidates & (candidates - 1)) == 0) {
+                    place(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                    changed = true;
+                }
+            }
+
+            // Hidden singles
+            for (int unit = 0; unit < 27; unit++) {
+                int[] unitCells = UNITS[unit];
+                int once = 0;
+                int twice = 0;
+                int placed = 0;
+                for (int i = 0; i < 9; i++) {
+                    int cell = unitCells[i];
+                    if (cells[cell] != 0) {
+                        placed |= 1 << (cells[cell] - 1);
+                    } else {
+                        int candidates = candidates(cell);
+                        twice |= once & candidates;
+                        once |= candidates;
+                    }
+                }
+                if ((once | placed) != ALL) return false; // a digit has nowhere to go
+
+                int hidden = once & ~twice & ~placed;
+                while (hidden != 0) {
+                    int bit = hidden & -hidden;
+                    hidden ^= bit;
+                    int cell = findCandidateCell(unitCells, bit);
+                    if (cell == -1) return false;
+                    place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                    changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    // --Find the empty cell in a unit that can still take the digit bit
+    private int findCandidateCell(int[] unitCells, int bit) {
+        for (int i = 0; i < 9; i++) {
+            int cell = unitCells[i];
+            if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private int candidates(int cell) {
+        return ALL & ~(rowUsed[ROW_OF[cell]] | colUsed[COL_OF[cell]] | boxUsed[BOX_OF[cell]]);
+    }
+
+    private void place(int cell, int num) {
+        int bit = 1 << (num - 1);
+        cells[cell] = num;
+        rowUsed[ROW_OF[cell]] |= bit;
+        colUsed[COL_OF[cell]] |= bit;
+        boxUsed[BOX_OF[cell]] |= bit;
+        trail[trailSize++] = cell;
+    }
+
+    // --Clear every placement made after the trail mark
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trail[--trailSize];
+            int bit = ~(1 << (cells[cell] - 1));
+            cells[cell] = 0;
+            rowUsed[ROW_OF[cell]] &= bit;
+            colUsed[COL_OF[cell]] &= bit;
+            boxUsed[BOX_OF[cell]] &= bit;
+        }
+    }
+}
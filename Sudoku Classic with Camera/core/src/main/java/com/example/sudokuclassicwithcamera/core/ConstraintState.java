@@ -0,0 +1,152 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.Arrays;
+
+/**
+ * Live rule state of a grid that is being edited: digit counts per row, column and box, and for
+ * every cell the number of its units in which its digit repeats.
+ * <p>
+ * Edits go through {@link #set}, which writes to the bound grid and updates the state by looking
+ * only at the cell's three units, so "is it valid", "is it full" and "does this cell conflict" never
+ * rescan the board. Code that changes the grid directly must call {@link #reload()} afterwards.
+ */
+public final class ConstraintState {
+
+    private final SudokuGrid grid;
+    private final byte[] unitCounts = new byte[27 * 10]; // [unit * 10 + digit]
+    private final byte[] duplicateUnits = new byte[SudokuGrid.CELLS]; // 0-3 per cell
+    private int conflicting; // cells with duplicateUnits > 0
+    private int filled;
+
+    public ConstraintState(SudokuGrid grid) {
+        this.grid = grid;
+        reload();
+    }
+
+    public SudokuGrid getGrid() {
+        return grid;
+    }
+
+    // --Rebuild everything from the grid, O(81)
+    public void reload() {
+        Arrays.fill(unitCounts, (byte) 0);
+        Arrays.fill(duplicateUnits, (byte) 0);
+        conflicting = 0;
+        filled = 0;
+
+        byte[] cells = grid.cells;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int value = cells[cell];
+            if (value == 0) continue;
+            filled++;
+            unitCounts[SudokuGrid.ROW_OF[cell] * 10 + value]++;
+            unitCounts[(9 + SudokuGrid.COL_OF[cell]) * 10 + value]++;
+            unitCounts[(18 + SudokuGrid.BOX_OF[cell]) * 10 + value]++;
+        }
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int value = cells[cell];
+            if (value == 0) continue;
+            int units = 0;
+            if (unitCounts[SudokuGrid.ROW_OF[cell] * 10 + value] > 1) units++;
+            if (unitCounts[(9 + SudokuGrid.COL_OF[cell]) * 10 + value] > 1) units++;
+            if (unitCounts[(18 + SudokuGrid.BOX_OF[cell]) * 10 + value] > 1) units++;
+            duplicateUnits[cell] = (byte) units;
+            if (units > 0) conflicting++;
+        }
+    }
+
+    public int get(int cell) {
+        return grid.cells[cell];
+    }
+
+    // --Write a value (0 clears) to the grid and update the state from the cell's three units only
+    public void set(int cell, int value) {
+        if (value < 0 || value > 9) throw new IllegalArgumentException("Invalid cell value: " + value);
+        int old = grid.cells[cell];
+        if (old == value) return;
+
+        if (old != 0) {
+            grid.cells[cell] = 0;
+            filled--;
+            remove(cell, SudokuGrid.ROW_OF[cell], old);
+            remove(cell, 9 + SudokuGrid.COL_OF[cell], old);
+            remove(cell, 18 + SudokuGrid.BOX_OF[cell], old);
+        }
+        if (value != 0) {
+            grid.cells[cell] = (byte) value;
+            filled++;
+            add(cell, SudokuGrid.ROW_OF[cell], value);
+            add(cell, 9 + SudokuGrid.COL_OF[cell], value);
+            add(cell, 18 + SudokuGrid.BOX_OF[cell], value);
+        }
+    }
+
+    // --No digit repeats in any row, column or box
+    public boolean isValid() {
+        return conflicting == 0;
+    }
+
+    public boolean isFull() {
+        return filled == SudokuGrid.CELLS;
+    }
+
+    // --Full and valid, i.e. a finished Sudoku
+    public boolean isSolved() {
+        return filled == SudokuGrid.CELLS && conflicting == 0;
+    }
+
+    // --The cell's digit also appears in one of its peers
+    public boolean isConflict(int cell) {
+        return duplicateUnits[cell] > 0;
+    }
+
+    public int getConflictCount() {
+        return conflicting;
+    }
+
+    public int getFilledCount() {
+        return filled;
+    }
+
+    // --Lowest conflicting cell, or -1; only scans when there is one
+    public int firstConflict() {
+        if (conflicting == 0) return -1;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (duplicateUnits[cell] > 0) return cell;
+        }
+        return -1;
+    }
+
+    private void add(int cell, int unit, int value) {
+        int count = ++unitCounts[unit * 10 + value];
+        if (count < 2) return;
+        mark(cell, 1);
+        if (count == 2) mark(otherWith(unit, cell, value), 1); // the digit that was alone now repeats
+    }
+
+    // --The cell's value is already cleared in the grid
+    private void remove(int cell, int unit, int value) {
+        int count = --unitCounts[unit * 10 + value];
+        if (count < 1) return;
+        mark(cell, -1);
+        if (count == 1) mark(otherWith(unit, cell, value), -1); // the remaining one is alone again
+    }
+
+    private void mark(int cell, int delta) {
+        int before = duplicateUnits[cell];
+        int after = before + delta;
+        duplicateUnits[cell] = (byte) after;
+        if (before == 0 && after > 0) conflicting++;
+        else if (before > 0 && after == 0) conflicting--;
+    }
+
+    // --The cell of the unit other than skip holding value
+    private int otherWith(int unit, int skip, int value) {
+        int[] members = SudokuGrid.UNITS[unit];
+        for (int i = 0; i < 9; i++) {
+            int cell = members[i];
+            if (cell != skip && grid.cells[cell] == value) return cell;
+        }
+        throw new IllegalStateException("Unit counts out of sync with the grid");
+    }
+}
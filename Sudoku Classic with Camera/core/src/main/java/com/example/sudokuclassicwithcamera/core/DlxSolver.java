@@ -0,0 +1,276 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Dancing Links (Algorithm X) exact-cover Sudoku solver.
+ * <p>
+ * The 729-row / 324-column cover matrix is built once into flat node arrays and
+ * restored after every call, so solving, counting and listing solutions do not allocate.
+ * Instances are not thread-safe.
+ */
+public final class DlxSolver implements SudokuEngine {
+
+    private static final int ROOT = 0;
+    private static final int COLUMNS = 324; // cell, row-digit, column-digit and box-digit constraints
+    private static final int ROWS = 729;    // one per (cell, digit) candidate
+    private static final int NODES = 1 + COLUMNS + ROWS * 4;
+
+    // --Node arena: links, column header and candidate row of every node
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] column = new int[NODES];
+    private final int[] rowOf = new int[NODES];
+    private final int[] size = new int[COLUMNS + 1];
+    private final boolean[] covered = new boolean[COLUMNS + 1];
+    private final int[] firstNode = new int[ROWS];
+
+    private final byte[] input = new byte[81]; // int[][] givens converted for run
+    private final int[] givens = new int[81];
+    private final int[] givenRows = new int[81];
+    private final int[] chosen = new int[81];
+    private final int[] solution = new int[81];
+    private int givenCount;
+    private int solutionCount;
+    private int solutionLimit;
+    private SolutionCallback callback;
+    private SearchControl control;
+
+    public DlxSolver() {
+        buildMatrix();
+    }
+
+    @Override
+    public boolean solve(int[][] grid) {
+        if (grid == null) return false;
+        SudokuGrid.load(grid, input);
+        if (run(input, 1, null) == 0) return false;
+
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = solution[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(int[][] grid, int limit) {
+        if (grid == null) return 0;
+        SudokuGrid.load(grid, input);
+        return run(input, limit, null);
+    }
+
+    @Override
+    public boolean solve(SudokuGrid grid) {
+        if (grid == null || run(grid.cells, 1, null) == 0) return false;
+
+        for (int cell = 0; cell < 81; cell++) {
+            grid.cells[cell] = (byte) solution[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(SudokuGrid grid, int limit) {
+        return grid == null ? 0 : run(grid.cells, limit, null);
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    // --Report up to limit solutions, the array passed to the callback is reused between calls
+    public int forEachSolution(int[][] grid, int limit, SolutionCallback callback) {
+        if (grid == null) return 0;
+        SudokuGrid.load(grid, input);
+        return run(input, limit, callback);
+    }
+
+    // --Flat grid variant of forEachSolution(int[][], int, SolutionCallback)
+    public int forEachSolution(SudokuGrid grid, int limit, SolutionCallback callback) {
+        return grid == null ? 0 : run(grid.cells, limit, callback);
+    }
+
+    // --Cover the givens, search, then restore the matrix for the next call
+    private int run(byte[] cells, int limit, SolutionCallback callback) {
+        if (limit <= 0) return 0;
+
+        this.solutionLimit = limit;
+        this.solutionCount = 0;
+        this.callback = callback;
+        givenCount = 0;
+
+        boolean consistent = true;
+        for (int cell = 0; cell < 81 && consistent; cell++) {
+            int num = cells[cell];
+            givens[cell] = num;
+            if (num == 0) continue;
+            if (num < 1 || num > 9) {
+                consistent = false;
+                break;
+            }
+
+            int row = cell * 9 + num - 1;
+            if (!selectGiven(row)) {
+                consistent = false;
+                break;
+            }
+            givenRows[givenCount++] = row;
+        }
+
+        if (consistent) {
+            search(0);
+        }
+
+        for (int i = givenCount - 1; i >= 0; i--) {
+            deselect(firstNode[givenRows[i]]);
+        }
+        this.callback = null;
+        return solutionCount;
+    }
+
+    // --Algorithm X with the minimum-size column heuristic
+    private boolean search(int depth) {
+        if (control != null && !control.onNode()) return true; // budget spent or cancelled
+
+        if (right[ROOT] == ROOT) {
+            recordSolution(depth);
+            return solutionCount >= solutionLimit;
+        }
+
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+                if (size[c] <= 1) break;
+            }
+        }
+        if (size[best] == 0) return false;
+
+        cover(best);
+        boolean stop = false;
+        for (int node = down[best]; node != best && !stop; node = down[node]) {
+            chosen[depth] = rowOf[node];
+            for (int j = right[node]; j != node; j = right[j]) cover(column[j]);
+            stop = search(depth + 1);
+            for (int j = left[node]; j != node; j = left[j]) uncover(column[j]);
+        }
+        uncover(best);
+        return stop;
+    }
+
+    private void recordSolution(int depth) {
+        solutionCount++;
+        if (solutionCount > 1 && callback == null) return;
+
+        System.arraycopy(givens, 0, solution, 0, 81);
+        for (int i = 0; i < depth; i++) {
+            int row = chosen[i];
+            solution[row / 9] = row % 9 + 1;
+        }
+        if (callback != null) {
+            callback.onSolution(solution);
+        }
+    }
+
+    // --Select a given's row, returns false if one of its constraints is already taken
+    private boolean selectGiven(int row) {
+        int first = firstNode[row];
+        int node = first;
+        do {
+            if (covered[column[node]]) return false;
+            node = right[node];
+        } while (node != first);
+
+        node = first;
+        do {
+            cover(column[node]);
+            node = right[node];
+        } while (node != first);
+        return true;
+    }
+
+    private void deselect(int first) {
+        int node = left[first];
+        do {
+            uncover(column[node]);
+            node = left[node];
+        } while (node != left[first]);
+    }
+
+    private void cover(int c) {
+        covered[c] = true;
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        covered[c] = false;
+    }
+
+    // --Build the full Sudoku exact-cover matrix once
+    private void buildMatrix() {
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        int node = COLUMNS + 1;
+        for (int row = 0; row < ROWS; row++) {
+            int cell = row / 9;
+            int digit = row % 9;
+            int r = cell / 9;
+            int c = cell % 9;
+            int box = (r / 3) * 3 + c / 3;
+
+            int[] columns = {
+                    1 + cell,
+                    1 + 81 + r * 9 + digit,
+                    1 + 162 + c * 9 + digit,
+                    1 + 243 + box * 9 + digit
+            };
+
+            firstNode[row] = node;
+            for (int k = 0; k < 4; k++) {
+                int n = node + k;
+                int col = columns[k];
+                column[n] = col;
+                rowOf[n] = row;
+                left[n] = node + (k + 3) % 4;
+                right[n] = node + (k + 1) % 4;
+                up[n] = up[col];
+                down[n] = col;
+                down[up[col]] = n;
+                up[col] = n;
+                size[col]++;
+            }
+            node += 4;
+        }
+    }
+
+    /**
+     * Receives each solution found by {@link #forEachSolution}
+     */
+    public interface SolutionCallback {
+        void onSolution(int[] solution);
+    }
+}
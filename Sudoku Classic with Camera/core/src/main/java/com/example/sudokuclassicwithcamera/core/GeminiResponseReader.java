@@ -0,0 +1,176 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pulls {@code candidates[0].content.parts[0].text} out of a generateContent JSON response while
+ * it streams in, without building a JSON tree. Everything else is skipped token by token, and
+ * reading stops as soon as the text has been decoded.
+ */
+public final class GeminiResponseReader {
+
+    private final Reader in;
+    private final int maxTextLength;
+    private final char[] buffer = new char[2048];
+    private int position;
+    private int limit;
+
+    public GeminiResponseReader(Reader in, int maxTextLength) {
+        this.in = in;
+        this.maxTextLength = maxTextLength;
+    }
+
+    // --The first candidate's first text part, null if the response has none
+    public String readText() throws IOException {
+        if (!enterObject()) return null;
+        if (!findMember("candidates") || !enterArray() || !enterObject()) return null;
+        if (!findMember("content") || !enterObject()) return null;
+        if (!findMember("parts") || !enterArray() || !enterObject()) return null;
+        if (!findMember("text")) return null;
+        if (peekToken() != '"') return null;
+        next();
+        return readString(maxTextLength);
+    }
+
+    // --Consume '{' if it is the next token
+    private boolean enterObject() throws IOException {
+        if (peekToken() != '{') return false;
+        next();
+        return true;
+    }
+
+    // --Consume '[' and stop at the first element, false if the array is empty
+    private boolean enterArray() throws IOException {
+        if (peekToken() != '[') return false;
+        next();
+        return peekToken() != ']';
+    }
+
+    // --Inside an object: skip members until the one named name, positioned at its value
+    private boolean findMember(String name) throws IOException {
+        while (true) {
+            int c = peekToken();
+            if (c == ',') {
+                next();
+                continue;
+            }
+            if (c != '"') return false; // '}' or malformed
+            next();
+            boolean match = matchString(name);
+            if (peekToken() != ':') return false;
+            next();
+            if (match) return true;
+            skipValue();
+        }
+    }
+
+    // --Read a string body after its opening quote and compare it with expected
+    private boolean matchString(String expected) throws IOException {
+        int index = 0;
+        boolean match = true;
+        while (true) {
+            int c = next();
+            if (c < 0) return false;
+            if (c == '"') return match && index == expected.length();
+            if (c == '\\') {
+                c = unescape();
+            }
+            if (index >= expected.length() || expected.charAt(index) != c) match = false;
+            index++;
+        }
+    }
+
+    private String readString(int maxLength) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        while (true) {
+            int c = next();
+            if (c < 0) throw new IOException("Unterminated string");
+            if (c == '"') return sb.toString();
+            if (c == '\\') c = unescape();
+            if (sb.length() == maxLength) throw new IOException("Text longer than " + maxLength + " characters");
+            sb.append((char) c);
+        }
+    }
+
+    private int unescape() throws IOException {
+        int c = next();
+        switch (c) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u': {
+                int value = 0;
+                for (int k = 0; k < 4; k++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) throw new IOException("Bad \\u escape");
+                    value = value * 16 + digit;
+                }
+                return value;
+            }
+            case -1: throw new IOException("Unterminated escape");
+            default: return c; // \" \\ \/
+        }
+    }
+
+    // --Skip one value of any type, nested containers included
+    private void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int c = peekToken();
+            if (c < 0) return;
+            next();
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (depth == 0) {
+                // Bare literal: consume up to the next delimiter
+                while (true) {
+                    int d = peek();
+                    if (d < 0 || d == ',' || d == '}' || d == ']' || Character.isWhitespace(d)) break;
+                    next();
+                }
+            }
+        } while (depth > 0);
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = next();
+            if (c < 0 || c == '"') return;
+            if (c == '\\') next();
+        }
+    }
+
+    // --Next non-whitespace character without consuming it, -1 at the end
+    private int peekToken() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c < 0 || !Character.isWhitespace(c)) return c;
+            position++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c >= 0) position++;
+        return c;
+    }
+}
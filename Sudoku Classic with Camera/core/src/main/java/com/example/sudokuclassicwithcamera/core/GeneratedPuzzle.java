@@ -0,0 +1,90 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * A generated puzzle together with the solved grid it was carved from and the
+ * seed that reproduces it, and its {@link PuzzleRating}. Puzzles of a symmetric or exact-clue
+ * mode also record that mode. A generator that ran out of attempts returns its closest
+ * puzzle with {@link #isOnTarget()} false instead of failing.
+ */
+public final class GeneratedPuzzle {
+
+    private final SudokuGrid puzzle;
+    private final SudokuGrid solution;
+    private final String difficulty;
+    private final long seed;
+    private final PuzzleRating rating;
+    private final Symmetry symmetry;
+    private final int clues; // 0 for the difficulty's own count
+    private final boolean onTarget;
+
+    public GeneratedPuzzle(SudokuGrid puzzle, SudokuGrid solution, String difficulty, long seed, PuzzleRating rating) {
+        this(puzzle, solution, difficulty, seed, rating, Symmetry.NONE, 0, true);
+    }
+
+    public GeneratedPuzzle(SudokuGrid puzzle, SudokuGrid solution, String difficulty, long seed, PuzzleRating rating,
+                           Symmetry symmetry, int clues, boolean onTarget) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.rating = rating;
+        this.symmetry = symmetry;
+        this.clues = clues;
+        this.onTarget = onTarget;
+    }
+
+    // --Copy of the puzzle, safe to modify
+    public SudokuGrid getPuzzleGrid() {
+        return puzzle.copy();
+    }
+
+    // --Copy of the solution, safe to modify
+    public SudokuGrid getSolutionGrid() {
+        return solution.copy();
+    }
+
+    // --int[][] adapter of getPuzzleGrid()
+    public int[][] getPuzzle() {
+        return puzzle.toArray();
+    }
+
+    // --int[][] adapter of getSolutionGrid()
+    public int[][] getSolution() {
+        return solution.toArray();
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // --Techniques a person needs for this puzzle
+    public PuzzleRating getRating() {
+        return rating;
+    }
+
+    public Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    // --Requested clue count, 0 if the difficulty decided it
+    public int getRequestedClues() {
+        return clues;
+    }
+
+    // --False if no attempt reached the clue count or, for a difficulty's own count, the rating
+    // --window of the difficulty, so the puzzle is only the closest one found
+    public boolean isOnTarget() {
+        return onTarget;
+    }
+
+    // --Short ID that regenerates this puzzle, see PuzzleId; null for symmetric and exact-clue
+    // --modes and seeds beyond 40 bits, which IDs do not encode
+    public String getId() {
+        if (symmetry != Symmetry.NONE || clues != 0 || !PuzzleId.isEncodable(seed)) return null;
+        return PuzzleId.encode(difficulty, seed);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generation times per generator mode, keyed like {@code hard/rotational/22 clues}: how many
+ * puzzles were made, their mean and worst time, and how many were on target, see
+ * {@link GeneratedPuzzle#isOnTarget()}.
+ * Cheap enough to record every puzzle; thread-safe.
+ */
+public final class GeneratorMetrics {
+
+    /**
+     * Totals of one mode and difficulty
+     */
+    public static final class Entry {
+        private final String key;
+        private int count;
+        private int reached;
+        private long totalNanos;
+        private long maxNanos;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        private Entry(Entry other) {
+            this.key = other.key;
+            this.count = other.count;
+            this.reached = other.reached;
+            this.totalNanos = other.totalNanos;
+            this.maxNanos = other.maxNanos;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        // --Puzzles that reached their clue count and, without an exact count, their rating window
+        public int getReached() {
+            return reached;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalNanos / 1e6 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d puzzles, mean %.1f ms, max %.1f ms, %d/%d reached",
+                    key, count, getMeanMillis(), getMaxMillis(), reached, count);
+        }
+    }
+
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    // --Key of a mode, e.g. "easy/none/default" or "hard/mirror/20 clues"
+    public static String keyOf(String difficulty, Symmetry symmetry, int clues) {
+        return difficulty.toLowerCase() + "/" + symmetry.name().toLowerCase() + "/"
+                + (clues > 0 ? clues + " clues" : "default");
+    }
+
+    synchronized void record(String difficulty, Symmetry symmetry, int clues, long nanos, boolean reached) {
+        String key = keyOf(difficulty, symmetry, clues);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key);
+            entries.put(key, entry);
+        }
+        entry.count++;
+        if (reached) entry.reached++;
+        entry.totalNanos += nanos;
+        entry.maxNanos = Math.max(entry.maxNanos, nanos);
+    }
+
+    // --Entry of a mode, null if nothing was generated in it yet
+    public synchronized Entry get(String difficulty, Symmetry symmetry, int clues) {
+        Entry entry = entries.get(keyOf(difficulty, symmetry, clues));
+        return entry == null ? null : new Entry(entry);
+    }
+
+    // --Copies of all entries, sorted by key
+    public synchronized List<Entry> snapshot() {
+        List<Entry> copy = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            copy.add(new Entry(entry));
+        }
+        return copy;
+    }
+
+    public synchronized void reset() {
+        entries.clear();
+    }
+
+    // --One line per mode, for logs
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : snapshot()) {
+            sb.append(entry).append('\n');
+        }
+        return sb.toString();
+    }
+}
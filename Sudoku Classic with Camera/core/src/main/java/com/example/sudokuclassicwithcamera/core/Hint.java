@@ -0,0 +1,51 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * The next digit a person can deduce: where it goes, the hardest {@link Technique} needed to
+ * get there and the cells that make the deduction work (the unit of a hidden single, the pair
+ * of a naked pair, the base lines of an X-Wing and so on).
+ */
+public final class Hint {
+
+    private final int cell;
+    private final int digit;
+    private final Technique technique;
+    private final int[] support;
+
+    Hint(int cell, int digit, Technique technique, int[] support) {
+        this.cell = cell;
+        this.digit = digit;
+        this.technique = technique;
+        this.support = support;
+    }
+
+    public int getCell() {
+        return cell;
+    }
+
+    public int getRow() {
+        return SudokuGrid.rowOf(cell);
+    }
+
+    public int getCol() {
+        return SudokuGrid.colOf(cell);
+    }
+
+    public int getDigit() {
+        return digit;
+    }
+
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    // --Cells behind the deduction, a copy
+    public int[] getSupport() {
+        return support.clone();
+    }
+
+    @Override
+    public String toString() {
+        return technique.getLabel() + ": " + digit + " in row " + (getRow() + 1) + ", column " + (getCol() + 1);
+    }
+}
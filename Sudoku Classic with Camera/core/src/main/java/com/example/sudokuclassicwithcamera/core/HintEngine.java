@@ -0,0 +1,25 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Hands out {@link Hint}s for a grid that a player is filling in.
+ * <p>
+ * The candidate state of the {@link LogicalSolver} is kept between calls. As long as the player
+ * only adds digits that are still candidates (typically the hinted ones), the next call places
+ * them and carries on from the eliminations already made; clearing or changing a digit rebuilds
+ * the state, which is still only a pass over 81 cells. Not thread-safe, use one per screen.
+ */
+public final class HintEngine {
+
+    private final LogicalSolver solver = new LogicalSolver();
+
+    // --Next deduction for the grid, null if logic alone gets stuck or the grid cannot be solved
+    public Hint next(SudokuGrid grid) {
+        solver.sync(grid);
+        return solver.nextHint();
+    }
+
+    // --Drop the kept state, e.g. when a new puzzle starts
+    public void reset() {
+        solver.reset();
+    }
+}
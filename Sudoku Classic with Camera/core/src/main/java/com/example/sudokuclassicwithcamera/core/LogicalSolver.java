@@ -0,0 +1,590 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.Arrays;
+
+/**
+ * Solves the way a person does: one step at a time, always with the easiest {@link Technique}
+ * that makes progress, and no guessing. What it needed is returned as a {@link PuzzleRating}.
+ * <p>
+ * Candidates are 9-bit masks per cell (bit d-1 for digit d), units and peers come from the
+ * {@link SudokuGrid} tables, so a rating takes a few microseconds and can sit inside the
+ * generation loop. Instances reuse their buffers and are not thread-safe.
+ */
+public final class LogicalSolver {
+
+    private static final int ALL = 0x1FF;
+    private static final int[][] UNITS = SudokuGrid.UNITS;
+    private static final int[][] PEERS = SudokuGrid.PEERS;
+
+    private final byte[] values = new byte[SudokuGrid.CELLS];
+    private final int[] candidates = new int[SudokuGrid.CELLS];
+    private final int[] uses = new int[Technique.values().length];
+    private int empty;
+    private boolean broken; // a cell ran out of candidates, the puzzle has no solution
+    private boolean loaded;
+
+    // What the last step did, for hints
+    private final int[] support = new int[SudokuGrid.CELLS];
+    private int supportCount;
+    private int lastPlaced = -1;
+
+    // Scratch for the techniques
+    private final int[] used = new int[27]; // digits placed per unit
+    private final int[] cellsBuffer = new int[9];
+    private final int[] digitPositions = new int[9];
+    private final int[] lineMasks = new int[9];
+    private final int[] color = new int[SudokuGrid.CELLS];
+    private final int[] links = new int[SudokuGrid.CELLS * 3];
+    private final int[] linkCount = new int[SudokuGrid.CELLS];
+    private final int[] queue = new int[SudokuGrid.CELLS];
+
+    // --Rate the puzzle, it is not modified
+    public PuzzleRating rate(SudokuGrid puzzle) {
+        load(puzzle);
+        return run();
+    }
+
+    // --Place everything logic alone can find into the grid, returns the rating (solved or stuck)
+    public PuzzleRating solve(SudokuGrid grid) {
+        load(grid);
+        PuzzleRating rating = run();
+        if (!broken) System.arraycopy(values, 0, grid.cells, 0, SudokuGrid.CELLS);
+        return rating;
+    }
+
+    // --Cheap uniqueness proof: true if singles alone fill the grid, which then has exactly one
+    // --solution. False says nothing, a search has to decide.
+    public boolean solvesWithSingles(SudokuGrid puzzle) {
+        load(puzzle);
+        while (empty > 0 && !broken) {
+            supportCount = 0;
+            if (!hiddenSingle() && !nakedSingle()) break;
+        }
+        return empty == 0 && !broken;
+    }
+
+    // --Apply the easiest technique that makes progress and return it, null if none does
+    Technique step() {
+        supportCount = 0;
+        if (hiddenSingle()) return Technique.HIDDEN_SINGLE;
+        if (nakedSingle()) return Technique.NAKED_SINGLE;
+        if (pointing()) return Technique.POINTING;
+        if (claiming()) return Technique.CLAIMING;
+        if (nakedSubset(2)) return Technique.NAKED_PAIR;
+        if (hiddenSubset(2)) return Technique.HIDDEN_PAIR;
+        if (nakedSubset(3)) return Technique.NAKED_TRIPLE;
+        if (hiddenSubset(3)) return Technique.HIDDEN_TRIPLE;
+        if (fish(2)) return Technique.X_WING;
+        if (fish(3)) return Technique.SWORDFISH;
+        if (xyWing()) return Technique.XY_WING;
+        if (simpleColoring()) return Technique.SIMPLE_COLORING;
+        return null;
+    }
+
+    private PuzzleRating run() {
+        Technique hardest = null;
+        int steps = 0;
+        while (empty > 0 && !broken) {
+            Technique technique = step();
+            if (technique == null) break;
+            uses[technique.ordinal()]++;
+            steps++;
+            if (hardest == null || technique.compareTo(hardest) > 0) hardest = technique;
+        }
+        return new PuzzleRating(empty == 0 && !broken, hardest, steps, uses.clone());
+    }
+
+    // --Bring the state up to the grid; while the grid only gained digits that are still candidates,
+    // --earlier eliminations are kept and only the new digits are placed
+    void sync(SudokuGrid grid) {
+        byte[] cells = grid.cells;
+        boolean reload = !loaded || broken;
+        for (int cell = 0; cell < SudokuGrid.CELLS && !reload; cell++) {
+            int value = cells[cell];
+            if (values[cell] == value) continue;
+            reload = values[cell] != 0 || (candidates[cell] & (1 << (value - 1))) == 0;
+        }
+        if (reload) {
+            load(grid);
+            return;
+        }
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (values[cell] == 0 && cells[cell] != 0) place(cell, 1 << (cells[cell] - 1));
+        }
+    }
+
+    // --Run steps up to the next placement; the hint names the hardest technique on the way there
+    // --and the cells that support it. Null if logic gets stuck or the grid has no solution.
+    Hint nextHint() {
+        Technique hardest = null;
+        int[] hardestSupport = null;
+        while (empty > 0 && !broken) {
+            Technique technique = step();
+            if (technique == null) return null;
+            if (hardest == null || technique.compareTo(hardest) > 0) {
+                hardest = technique;
+                hardestSupport = Arrays.copyOf(support, supportCount);
+            }
+            if (technique.getTier() == Technique.Tier.SINGLES && !broken) {
+                return new Hint(lastPlaced, values[lastPlaced], hardest, hardestSupport);
+            }
+        }
+        return null;
+    }
+
+    // --Forget the kept state, the next sync loads from scratch
+    void reset() {
+        loaded = false;
+    }
+
+    void load(SudokuGrid grid) {
+        System.arraycopy(grid.cells, 0, values, 0, SudokuGrid.CELLS);
+        Arrays.fill(uses, 0);
+        broken = grid.findConflict() >= 0;
+        loaded = true;
+        empty = 0;
+
+        Arrays.fill(used, 0);
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int value = values[cell];
+            if (value == 0) continue;
+            int bit = 1 << (value - 1);
+            used[SudokuGrid.ROW_OF[cell]] |= bit;
+            used[9 + SudokuGrid.COL_OF[cell]] |= bit;
+            used[18 + SudokuGrid.BOX_OF[cell]] |= bit;
+        }
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (values[cell] != 0) {
+                candidates[cell] = 0;
+                continue;
+            }
+            empty++;
+            candidates[cell] = ALL & ~(used[SudokuGrid.ROW_OF[cell]] | used[9 + SudokuGrid.COL_OF[cell]]
+                    | used[18 + SudokuGrid.BOX_OF[cell]]);
+            if (candidates[cell] == 0) broken = true;
+        }
+    }
+
+    int valueAt(int cell) {
+        return values[cell];
+    }
+
+    int candidatesAt(int cell) {
+        return candidates[cell];
+    }
+
+    private void place(int cell, int bit) {
+        values[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+        candidates[cell] = 0;
+        empty--;
+        lastPlaced = cell;
+        for (int peer : PEERS[cell]) {
+            if ((candidates[peer] & bit) != 0) {
+                candidates[peer] &= ~bit;
+                if (candidates[peer] == 0) broken = true;
+            }
+        }
+    }
+
+    // --Remove the digits in mask from the cell, true if anything changed
+    private boolean eliminate(int cell, int mask) {
+        int before = candidates[cell];
+        int after = before & ~mask;
+        if (after == before) return false;
+        candidates[cell] = after;
+        if (after == 0) broken = true;
+        return true;
+    }
+
+    private void addSupport(int cell) {
+        support[supportCount++] = cell;
+    }
+
+    // --Cells of the unit at the positions set in the 9-bit mask
+    private void addSupport(int[] unit, int positions) {
+        for (int i = 0; i < 9; i++) {
+            if ((positions & (1 << i)) != 0) addSupport(unit[i]);
+        }
+    }
+
+    // --Cells of the unit that still have the digit
+    private void addSupportWith(int[] unit, int bit) {
+        for (int cell : unit) {
+            if ((candidates[cell] & bit) != 0) addSupport(cell);
+        }
+    }
+
+    private static boolean sees(int a, int b) {
+        return a != b && (SudokuGrid.ROW_OF[a] == SudokuGrid.ROW_OF[b] || SudokuGrid.COL_OF[a] == SudokuGrid.COL_OF[b]
+                || SudokuGrid.BOX_OF[a] == SudokuGrid.BOX_OF[b]);
+    }
+
+    // --A digit with only one place left in a unit
+    private boolean hiddenSingle() {
+        for (int[] unit : UNITS) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : unit) {
+                int mask = candidates[cell];
+                twice |= once & mask;
+                once |= mask;
+            }
+            int single = once & ~twice;
+            if (single == 0) continue;
+
+            int bit = Integer.lowestOneBit(single);
+            for (int cell : unit) {
+                if ((candidates[cell] & bit) != 0) {
+                    for (int other : unit) {
+                        if (other != cell) addSupport(other);
+                    }
+                    place(cell, bit);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // --A cell with only one candidate left
+    private boolean nakedSingle() {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            int mask = candidates[cell];
+            if (mask != 0 && (mask & (mask - 1)) == 0) {
+                for (int peer : PEERS[cell]) {
+                    if (values[peer] != 0) addSupport(peer);
+                }
+                place(cell, mask);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --A digit confined to one row or column of a box is removed from the rest of that line
+    private boolean pointing() {
+        for (int box = 0; box < 9; box++) {
+            int[] unit = UNITS[18 + box];
+            for (int bit = 1; bit <= 0x100; bit <<= 1) {
+                int rows = 0;
+                int cols = 0;
+                int count = 0;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) == 0) continue;
+                    rows |= 1 << SudokuGrid.ROW_OF[cell];
+                    cols |= 1 << SudokuGrid.COL_OF[cell];
+                    count++;
+                }
+                if (count < 2) continue;
+
+                boolean changed = false;
+                if (Integer.bitCount(rows) == 1) {
+                    for (int cell : UNITS[Integer.numberOfTrailingZeros(rows)]) {
+                        if (SudokuGrid.BOX_OF[cell] != box) changed |= eliminate(cell, bit);
+                    }
+                } else if (Integer.bitCount(cols) == 1) {
+                    for (int cell : UNITS[9 + Integer.numberOfTrailingZeros(cols)]) {
+                        if (SudokuGrid.BOX_OF[cell] != box) changed |= eliminate(cell, bit);
+                    }
+                }
+                if (changed) {
+                    addSupportWith(unit, bit);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // --A digit confined to one box within a row or column is removed from the rest of that box
+    private boolean claiming() {
+        for (int line = 0; line < 18; line++) {
+            int[] unit = UNITS[line];
+            for (int bit = 1; bit <= 0x100; bit <<= 1) {
+                int boxes = 0;
+                int count = 0;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) == 0) continue;
+                    boxes |= 1 << SudokuGrid.BOX_OF[cell];
+                    count++;
+                }
+                if (count < 2 || Integer.bitCount(boxes) != 1) continue;
+
+                boolean changed = false;
+                for (int cell : UNITS[18 + Integer.numberOfTrailingZeros(boxes)]) {
+                    boolean inLine = line < 9 ? SudokuGrid.ROW_OF[cell] == line : SudokuGrid.COL_OF[cell] == line - 9;
+                    if (!inLine) changed |= eliminate(cell, bit);
+                }
+                if (changed) {
+                    addSupportWith(unit, bit);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // --size cells of a unit sharing size candidates: those digits go from the unit's other cells
+    private boolean nakedSubset(int size) {
+        for (int[] unit : UNITS) {
+            int count = 0;
+            for (int i = 0; i < 9; i++) {
+                int n = Integer.bitCount(candidates[unit[i]]);
+                if (n >= 2 && n <= size) cellsBuffer[count++] = i;
+            }
+            if (count < size) continue;
+
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    int ab = candidates[unit[cellsBuffer[a]]] | candidates[unit[cellsBuffer[b]]];
+                    if (size == 2) {
+                        if (Integer.bitCount(ab) == 2
+                                && eliminateInUnit(unit, ab, (1 << cellsBuffer[a]) | (1 << cellsBuffer[b]))) return true;
+                        continue;
+                    }
+                    if (Integer.bitCount(ab) > 3) continue;
+                    for (int c = b + 1; c < count; c++) {
+                        int abc = ab | candidates[unit[cellsBuffer[c]]];
+                        int members = (1 << cellsBuffer[a]) | (1 << cellsBuffer[b]) | (1 << cellsBuffer[c]);
+                        if (Integer.bitCount(abc) == 3 && eliminateInUnit(unit, abc, members)) return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // --Remove mask from the unit's cells outside members (a bit set of unit positions)
+    private boolean eliminateInUnit(int[] unit, int mask, int members) {
+        boolean changed = false;
+        for (int i = 0; i < 9; i++) {
+            if ((members & (1 << i)) == 0) changed |= eliminate(unit[i], mask);
+        }
+        if (changed) addSupport(unit, members);
+        return changed;
+    }
+
+    // --size digits confined to the same size cells of a unit: other digits go from those cells
+    private boolean hiddenSubset(int size) {
+        for (int[] unit : UNITS) {
+            int count = 0;
+            for (int d = 0; d < 9; d++) {
+                int positions = 0;
+                for (int i = 0; i < 9; i++) {
+                    if ((candidates[unit[i]] & (1 << d)) != 0) positions |= 1 << i;
+                }
+                int n = Integer.bitCount(positions);
+                if (n >= 2 && n <= size) {
+                    digitPositions[count] = positions;
+                    cellsBuffer[count++] = d;
+                }
+            }
+            if (count < size) continue;
+
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    int ab = digitPositions[a] | digitPositions[b];
+                    int digits = (1 << cellsBuffer[a]) | (1 << cellsBuffer[b]);
+                    if (size == 2) {
+                        if (Integer.bitCount(ab) == 2 && keepOnly(unit, ab, digits)) return true;
+                        continue;
+                    }
+                    if (Integer.bitCount(ab) > 3) continue;
+                    for (int c = b + 1; c < count; c++) {
+                        int abc = ab | digitPositions[c];
+                        if (Integer.bitCount(abc) == 3 && keepOnly(unit, abc, digits | (1 << cellsBuffer[c]))) return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // --In the unit positions given, remove every candidate except digits
+    private boolean keepOnly(int[] unit, int positions, int digits) {
+        boolean changed = false;
+        for (int i = 0; i < 9; i++) {
+            if ((positions & (1 << i)) != 0) changed |= eliminate(unit[i], ~digits & ALL);
+        }
+        if (changed) addSupport(unit, positions);
+        return changed;
+    }
+
+    // --X-Wing (size 2) and Swordfish (size 3), rows as base lines and then columns
+    private boolean fish(int size) {
+        for (int bit = 1; bit <= 0x100; bit <<= 1) {
+            for (int byRow = 0; byRow < 2; byRow++) {
+                int count = 0;
+                for (int line = 0; line < 9; line++) {
+                    int mask = 0;
+                    for (int pos = 0; pos < 9; pos++) {
+                        int cell = byRow == 0 ? line * 9 + pos : pos * 9 + line;
+                        if ((candidates[cell] & bit) != 0) mask |= 1 << pos;
+                    }
+                    int n = Integer.bitCount(mask);
+                    if (n >= 2 && n <= size) {
+                        lineMasks[count] = mask;
+                        cellsBuffer[count++] = line;
+                    }
+                }
+                if (count < size) continue;
+
+                for (int a = 0; a < count; a++) {
+                    for (int b = a + 1; b < count; b++) {
+                        int ab = lineMasks[a] | lineMasks[b];
+                        int base = (1 << cellsBuffer[a]) | (1 << cellsBuffer[b]);
+                        if (size == 2) {
+                            if (Integer.bitCount(ab) == 2 && eliminateFish(bit, byRow == 0, base, ab)) return true;
+                            continue;
+                        }
+                        if (Integer.bitCount(ab) > 3) continue;
+                        for (int c = b + 1; c < count; c++) {
+                            int abc = ab | lineMasks[c];
+                            if (Integer.bitCount(abc) == 3
+                                    && eliminateFish(bit, byRow == 0, base | (1 << cellsBuffer[c]), abc)) return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // --Remove the digit from the cover lines outside the base lines
+    private boolean eliminateFish(int bit, boolean byRow, int baseLines, int coverLines) {
+        boolean changed = false;
+        for (int line = 0; line < 9; line++) {
+            if ((baseLines & (1 << line)) != 0) continue;
+            for (int pos = 0; pos < 9; pos++) {
+                if ((coverLines & (1 << pos)) == 0) continue;
+                changed |= eliminate(byRow ? line * 9 + pos : pos * 9 + line, bit);
+            }
+        }
+        if (changed) {
+            for (int line = 0; line < 9; line++) {
+                if ((baseLines & (1 << line)) != 0) addSupportWith(UNITS[byRow ? line : 9 + line], bit);
+            }
+        }
+        return changed;
+    }
+
+    // --Pivot {a,b} with pincers {a,c} and {b,c}: c goes from every cell seeing both pincers
+    private boolean xyWing() {
+        for (int pivot = 0; pivot < SudokuGrid.CELLS; pivot++) {
+            int pivotMask = candidates[pivot];
+            if (Integer.bitCount(pivotMask) != 2) continue;
+
+            for (int first : PEERS[pivot]) {
+                int firstMask = candidates[first];
+                if (Integer.bitCount(firstMask) != 2 || Integer.bitCount(firstMask & pivotMask) != 1) continue;
+                int c = firstMask & ~pivotMask;
+                int wanted = (pivotMask & ~firstMask) | c;
+
+                for (int second : PEERS[pivot]) {
+                    if (second == first || candidates[second] != wanted) continue;
+                    boolean changed = false;
+                    for (int cell : PEERS[first]) {
+                        if (cell != pivot && cell != second && sees(cell, second)) changed |= eliminate(cell, c);
+                    }
+                    if (changed) {
+                        addSupport(pivot);
+                        addSupport(first);
+                        addSupport(second);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // --Two-colour the chains of conjugate pairs of a digit: a colour that sees itself is false,
+    // --and a cell seeing both colours cannot hold the digit
+    private boolean simpleColoring() {
+        for (int bit = 1; bit <= 0x100; bit <<= 1) {
+            Arrays.fill(linkCount, 0);
+            for (int[] unit : UNITS) {
+                int first = -1;
+                int second = -1;
+                int count = 0;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) == 0) continue;
+                    if (count == 0) first = cell;
+                    else second = cell;
+                    count++;
+                }
+                if (count != 2) continue;
+                links[first * 3 + linkCount[first]++] = second;
+                links[second * 3 + linkCount[second]++] = first;
+            }
+
+            Arrays.fill(color, -1);
+            for (int start = 0; start < SudokuGrid.CELLS; start++) {
+                if (linkCount[start] == 0 || color[start] >= 0) continue;
+                int size = colorChain(start);
+                if (size > 2 && resolveChain(bit, size)) {
+                    for (int k = 0; k < size; k++) addSupport(queue[k]);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // --Breadth-first colouring of the chain through start, its cells end up in queue[0..size)
+    private int colorChain(int start) {
+        int head = 0;
+        int size = 0;
+        queue[size++] = start;
+        color[start] = 0;
+        while (head < size) {
+            int cell = queue[head++];
+            for (int k = 0; k < linkCount[cell]; k++) {
+                int next = links[cell * 3 + k];
+                if (color[next] < 0) {
+                    color[next] = 1 - color[cell];
+                    queue[size++] = next;
+                }
+            }
+        }
+        return size;
+    }
+
+    private boolean resolveChain(int bit, int size) {
+        // Colour wrap: two cells of one colour in a unit, so that colour is false everywhere
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int a = queue[i];
+                int b = queue[j];
+                if (color[a] != color[b] || !sees(a, b)) continue;
+                boolean changed = false;
+                for (int k = 0; k < size; k++) {
+                    if (color[queue[k]] == color[a]) changed |= eliminate(queue[k], bit);
+                }
+                return changed;
+            }
+        }
+
+        // Colour trap: one of the two colours is true, so a cell seeing both loses the digit
+        boolean changed = false;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if ((candidates[cell] & bit) == 0 || inChain(cell, size)) continue;
+            boolean seesZero = false;
+            boolean seesOne = false;
+            for (int k = 0; k < size; k++) {
+                if (!sees(cell, queue[k])) continue;
+                if (color[queue[k]] == 0) seesZero = true;
+                else seesOne = true;
+            }
+            if (seesZero && seesOne) changed |= eliminate(cell, bit);
+        }
+        return changed;
+    }
+
+    private boolean inChain(int cell, int size) {
+        for (int k = 0; k < size; k++) {
+            if (queue[k] == cell) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Single-pass decoder for the 9x9 grid a recognition model answers with, no regex and no JSON tree.
+ * <p>
+ * The expected form is {@code [[5,3,0,...],...]}, but model output is messy, so the parser also
+ * takes markdown fences and commentary around the grid, quoted cells, {@code null}, {@code .},
+ * {@code _} or {@code -} for empty cells, trailing commas, a missing closing bracket and, as a last
+ * resort, 81 bare cell symbols. Each tolerated deviation lowers {@link Result#getConfidence()}.
+ */
+public final class MatrixParser {
+    private MatrixParser() {} // Prevent instantiation
+
+    private static final float PENALTY_SYMBOL = 0.02f;   // per non-canonical empty cell or quote
+    private static final float PENALTY_STRUCTURE = 0.1f; // missing outer closing bracket
+    private static final float PENALTY_FLAT = 0.3f;      // no brackets at all
+    private static final float PENALTY_CONFLICT = 0.5f;  // well formed but breaks the rules
+
+    // --Decode the grid, never throws
+    public static Result parse(CharSequence text) {
+        if (text == null) return Result.failure(0, "No text");
+
+        int start = findNestedStart(text);
+        if (start >= 0) return parseNested(text, start);
+        return parseFlat(text);
+    }
+
+    // --Exactly count single digits (0 = empty) from a list answer like "[5, 3, 0]", null otherwise
+    public static int[] parseDigits(CharSequence text, int count) {
+        if (text == null) return null;
+
+        int n = text.length();
+        int i = 0;
+        while (i < n && text.charAt(i) != '[') i++;
+        if (i == n) i = 0; // no brackets, read the bare digits
+        else i++;
+
+        int[] digits = new int[count];
+        int found = 0;
+        for (; i < n; i++) {
+            char c = text.charAt(i);
+            if (c == ']') break;
+            int value;
+            if (c >= '0' && c <= '9') {
+                if (i + 1 < n && Character.isDigit(text.charAt(i + 1))) return null;
+                value = c - '0';
+            } else if (c == '.' || c == '_') {
+                value = 0;
+            } else {
+                continue;
+            }
+            if (found == count) return null;
+            digits[found++] = value;
+        }
+        return found == count ? digits : null;
+    }
+
+    // --Offset of the outer '[' of the first "[ [" pair, or -1
+    private static int findNestedStart(CharSequence text) {
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            if (text.charAt(i) != '[') continue;
+            int j = skipSpace(text, i + 1);
+            if (j < n && text.charAt(j) == '[') return i;
+        }
+        return -1;
+    }
+
+    private static Result parseNested(CharSequence text, int start) {
+        int n = text.length();
+        byte[] cells = new byte[SudokuGrid.CELLS];
+        float penalty = 0;
+
+        int i = start + 1;
+        for (int row = 0; row < 9; row++) {
+            i = skipSeparators(text, i);
+            if (i >= n || text.charAt(i) != '[') {
+                return Result.failure(i, "Expected row " + (row + 1) + " of 9");
+            }
+            i++;
+
+            int col = 0;
+            while (true) {
+                i = skipSeparators(text, i);
+                if (i >= n) return Result.failure(i, "Row " + (row + 1) + " is not closed");
+
+                char c = text.charAt(i);
+                if (c == ']') {
+                    i++;
+                    break;
+                }
+                int value;
+                if (c == '"' || c == '\'') {
+                    penalty += PENALTY_SYMBOL;
+                    if (i + 1 >= n || text.charAt(i + 1) != c) {
+                        i++;
+                        continue; // quotes around a cell carry no information
+                    }
+                    value = 0; // "" for an empty cell
+                    i += 2;
+                } else if (c >= '0' && c <= '9') {
+                    if (i + 1 < n && Character.isDigit(text.charAt(i + 1))) {
+                        return Result.failure(i, "Number out of range in row " + (row + 1));
+                    }
+                    value = c - '0';
+                    i++;
+                } else if (c == '.' || c == '_' || c == '-' || c == '*') {
+                    penalty += PENALTY_SYMBOL;
+                    value = 0;
+                    i++;
+                } else if (matchesWord(text, i, "null") || matchesWord(text, i, "None")) {
+                    penalty += PENALTY_SYMBOL;
+                    value = 0;
+                    i += 4;
+                } else {
+                    return Result.failure(i, "Unexpected '" + c + "' in row " + (row + 1));
+                }
+
+                if (col == 9) return Result.failure(i - 1, "Row " + (row + 1) + " has more than 9 cells");
+                cells[row * 9 + col++] = (byte) value;
+            }
+            if (col != 9) return Result.failure(i - 1, "Row " + (row + 1) + " has " + col + " cells");
+        }
+
+        // The outer bracket may be missing when the output was cut short
+        i = skipSeparators(text, i);
+        if (i >= n || text.charAt(i) != ']') penalty += PENALTY_STRUCTURE;
+
+        return Result.success(cells, penalty);
+    }
+
+    // --No brackets: take the first 81 cell symbols if the text has exactly 81
+    private static Result parseFlat(CharSequence text) {
+        byte[] cells = new byte[SudokuGrid.CELLS];
+        int count = 0;
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            int value;
+            if (c >= '0' && c <= '9') value = c - '0';
+            else if (c == '.' || c == '_') value = 0;
+            else continue;
+
+            if (count == SudokuGrid.CELLS) return Result.failure(i, "More than 81 cells");
+            cells[count++] = (byte) value;
+        }
+        if (count < SudokuGrid.CELLS) return Result.failure(n, "Found " + count + " of 81 cells");
+        return Result.success(cells, PENALTY_FLAT);
+    }
+
+    private static int skipSpace(CharSequence text, int i) {
+        int n = text.length();
+        while (i < n && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    // --Whitespace and commas, including trailing commas before ']'
+    private static int skipSeparators(CharSequence text, int i) {
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c != ',' && !Character.isWhitespace(c)) break;
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean matchesWord(CharSequence text, int i, String word) {
+        if (i + word.length() > text.length()) return false;
+        for (int k = 0; k < word.length(); k++) {
+            if (text.charAt(i + k) != word.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decoded grid, or where and why decoding failed
+     */
+    public static final class Result {
+        private final SudokuGrid grid;
+        private final float confidence;
+        private final int errorOffset;
+        private final String error;
+
+        private Result(SudokuGrid grid, float confidence, int errorOffset, String error) {
+            this.grid = grid;
+            this.confidence = confidence;
+            this.errorOffset = errorOffset;
+            this.error = error;
+        }
+
+        static Result success(byte[] cells, float penalty) {
+            SudokuGrid grid = SudokuGrid.fromBytes(cells);
+            if (grid.findConflict() >= 0) penalty += PENALTY_CONFLICT;
+            return new Result(grid, Math.max(0f, 1f - penalty), -1, null);
+        }
+
+        static Result failure(int offset, String error) {
+            return new Result(null, 0f, offset, error);
+        }
+
+        public boolean isSuccess() {
+            return grid != null;
+        }
+
+        // --Decoded grid (a copy), null on failure
+        public SudokuGrid getGrid() {
+            return grid == null ? null : grid.copy();
+        }
+
+        // --1 for a clean, rule-abiding grid, lower for every tolerated deviation, 0 on failure
+        public float getConfidence() {
+            return confidence;
+        }
+
+        // --Character offset where decoding failed, -1 on success
+        public int getErrorOffset() {
+            return errorOffset;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return isSuccess() ? "Result{confidence=" + confidence + "}"
+                    : "Result{error='" + error + "' at " + errorOffset + "}";
+        }
+    }
+}
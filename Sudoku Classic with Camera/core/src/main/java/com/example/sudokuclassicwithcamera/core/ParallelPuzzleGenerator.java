@@ -0,0 +1,354 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Puzzle generator that probes several cell removals at once on a {@link ForkJoinPool}.
+ * <p>
+ * Candidate cells are visited in a seeded random order. Each round tests the removal of
+ * growing prefixes of the next batch in parallel, each on its own grid copy, and commits the
+ * longest prefix that keeps the solution unique. Since removing clues never turns a
+ * non-unique puzzle back into a unique one, the first failing cell can be dropped for good.
+ * The batch size is fixed, so the result depends only on the seed and never on the thread count.
+ * <p>
+ * Every carved puzzle is graded by {@link LogicalSolver} and only kept if the hardest technique
+ * it needs falls in the tier window of its level. The windows are disjoint: easy needs singles
+ * only, medium intersections or subsets, hard fish or chains. Grids are cheap, so up to
+ * {@link #MAX_RATED_GRIDS} are carved to find one in the window; if none is, the closest puzzle
+ * is returned with {@link GeneratedPuzzle#isOnTarget()} false.
+ * <p>
+ * Two modes change the layout: a {@link Symmetry} removes cells in orbits so the clues form
+ * a symmetric pattern, and an exact clue count (down to 17) replaces the difficulty's count,
+ * reached below the usual 22-26 of a greedy carve by swapping clues. Probes reject removals
+ * that empty a deadly rectangle of the solution before solving, and accept those that singles
+ * alone can finish without a search. Times per mode are kept in {@link #metrics()}.
+ */
+public final class ParallelPuzzleGenerator {
+
+    private static final int BATCH_SIZE = 16;
+    private static final int MAX_SOLVED_GRIDS = 24; // fresh solutions to try for an exact clue count
+    private static final int MAX_RATED_GRIDS = 96; // fresh solutions to try for the rating window, ~1 ms each
+    private static final int REFINE_STEPS = 48; // clue swaps per solved grid when an exact count is short
+    public static final int MIN_CLUES = 17; // no unique puzzle has fewer
+    private static final int STUCK = Technique.Tier.values().length; // needs guessing, above every tier
+
+    private static final ThreadLocal<BitmaskSolver> fillSolver = ThreadLocal.withInitial(BitmaskSolver::new);
+    private static final ThreadLocal<LogicalSolver> grader = ThreadLocal.withInitial(LogicalSolver::new);
+    private static volatile ParallelPuzzleGenerator shared;
+
+    private final ForkJoinPool pool;
+    private final GeneratorMetrics metrics = new GeneratorMetrics();
+
+    public ParallelPuzzleGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // --Generator backed by its own pool of low-priority daemon threads on all cores, so
+    // --background generation never competes with the UI or the common pool
+    public static ParallelPuzzleGenerator shared() {
+        ParallelPuzzleGenerator generator = shared;
+        if (generator == null) {
+            synchronized (ParallelPuzzleGenerator.class) {
+                generator = shared;
+                if (generator == null) {
+                    generator = new ParallelPuzzleGenerator(new ForkJoinPool(
+                            Runtime.getRuntime().availableProcessors(), LowPriorityWorker::new, null, false));
+                    shared = generator;
+                }
+            }
+        }
+        return generator;
+    }
+
+    // --Generate a puzzle for the difficulty, the same seed always yields the same puzzle
+    public GeneratedPuzzle generate(String difficulty, long seed) {
+        return generate(difficulty, seed, Symmetry.NONE, 0);
+    }
+
+    // --Generate with the clues laid out in symmetric orbits and, if clues > 0, exactly that many
+    // --clues (17-81) instead of the difficulty's count; the same arguments always yield the same puzzle.
+    // --Counts below about 20 are rarely reached, the closest puzzle then has isOnTarget() false
+    public GeneratedPuzzle generate(String difficulty, long seed, Symmetry symmetry, int clues) {
+        if (clues != 0 && (clues < MIN_CLUES || clues > SudokuGrid.CELLS)) {
+            throw new IllegalArgumentException("Clue count must be " + MIN_CLUES + "-81: " + clues);
+        }
+        long start = System.nanoTime();
+        int cellsToRemove = clues > 0 ? SudokuGrid.CELLS - clues : SudokuSolverCore.getRemovalCount(difficulty);
+        SplittableRandom random = new SplittableRandom(seed);
+        LogicalSolver solver = grader.get();
+
+        SudokuGrid bestPuzzle = null;
+        SudokuGrid bestSolution = null;
+        PuzzleRating bestRating = null;
+        int bestRemoved = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        // An exact clue count is the target of its own, the rating only breaks ties
+        int attempts = clues > 0 ? MAX_SOLVED_GRIDS : MAX_RATED_GRIDS;
+        for (int attempt = 0; attempt < attempts
+                && (bestRemoved < cellsToRemove || (bestDistance > 0 && clues == 0)); attempt++) {
+            SudokuGrid solved = solvedGrid(random);
+            SudokuGrid puzzle = solved.copy();
+            int[] sets = unavoidableRectangles(solved);
+            int removed = carve(puzzle, sets, cellsToRemove, random, symmetry, -1);
+            if (clues > 0 && removed < cellsToRemove) {
+                removed = refine(puzzle, solved, sets, removed, cellsToRemove, random, symmetry);
+            }
+            PuzzleRating rating = solver.rate(puzzle);
+            int distance = tierDistance(difficulty, rating);
+
+            // Reaching the removal count comes first, then the closest rating
+            if (removed > bestRemoved || (removed == bestRemoved && distance < bestDistance)) {
+                bestPuzzle = puzzle;
+                bestSolution = solved;
+                bestRating = rating;
+                bestRemoved = removed;
+                bestDistance = distance;
+            }
+        }
+        boolean onTarget = bestRemoved >= cellsToRemove && (bestDistance == 0 || clues > 0);
+        metrics.record(difficulty, symmetry, clues, System.nanoTime() - start, onTarget);
+        return new GeneratedPuzzle(bestPuzzle, bestSolution, difficulty, seed, bestRating, symmetry, clues, onTarget);
+    }
+
+    // --Generation times of this generator per mode and difficulty
+    public GeneratorMetrics metrics() {
+        return metrics;
+    }
+
+    // --How many tiers the rating is outside the difficulty's window, 0 if accepted
+    static int tierDistance(String difficulty, PuzzleRating rating) {
+        int tier = !rating.isSolved() ? STUCK : rating.getTier() == null ? 0 : rating.getTier().ordinal();
+        int min;
+        int max;
+        switch (difficulty.toLowerCase()) {
+            case "hard":
+                min = Technique.Tier.FISH.ordinal();
+                max = Technique.Tier.CHAINS.ordinal();
+                break;
+            case "medium":
+                min = Technique.Tier.INTERSECTIONS.ordinal();
+                max = Technique.Tier.SUBSETS.ordinal();
+                break;
+            default:
+                min = Technique.Tier.SINGLES.ordinal();
+                max = Technique.Tier.SINGLES.ordinal();
+                break;
+        }
+        return tier < min ? min - tier : tier > max ? tier - max : 0;
+    }
+
+    // --Remove up to cellsToRemove cells keeping the solution unique, returns the number removed
+    public int carve(SudokuGrid grid, int cellsToRemove, SplittableRandom random) {
+        return carve(grid, cellsToRemove, random, Symmetry.NONE);
+    }
+
+    // --Same, removing whole orbits of the symmetry; only orbits that are completely filled are candidates
+    public int carve(SudokuGrid grid, int cellsToRemove, SplittableRandom random, Symmetry symmetry) {
+        int[] sets = grid.isFilled() ? unavoidableRectangles(grid) : new int[0];
+        return carve(grid, sets, cellsToRemove, random, symmetry, -1);
+    }
+
+    // --Orbits are listed by their representative cell, exclude is one to leave alone (or -1)
+    private int carve(SudokuGrid grid, int[] sets, int cellsToRemove, SplittableRandom random,
+                      Symmetry symmetry, int exclude) {
+        int[] order = new int[SudokuGrid.CELLS];
+        int count = 0;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (grid.get(cell) != 0 && cell != exclude && symmetry.isRepresentative(cell)
+                    && grid.get(symmetry.partner(cell)) != 0) {
+                order[count++] = cell;
+            }
+        }
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        boolean[] unique = new boolean[BATCH_SIZE];
+        int head = 0;
+        int removed = 0;
+        while (removed < cellsToRemove && head < count) {
+            // Longest run of orbits from head that still fits the removals left
+            int batch = 0;
+            int size = 0;
+            while (batch < BATCH_SIZE && head + batch < count) {
+                int orbit = symmetry.orbitSize(order[head + batch]);
+                if (size + orbit > cellsToRemove - removed) break;
+                size += orbit;
+                batch++;
+            }
+            if (batch == 0) {
+                head++; // a pair with one removal left, a single orbit further on may still fit
+                continue;
+            }
+            pool.invoke(new PrefixProbe(grid, order, head, 0, batch, unique, symmetry, sets));
+
+            int accepted = 0;
+            while (accepted < batch && unique[accepted]) accepted++;
+            for (int i = 0; i < accepted; i++) {
+                int cell = order[head + i];
+                grid.set(cell, 0);
+                grid.set(symmetry.partner(cell), 0);
+                removed += symmetry.orbitSize(cell);
+            }
+
+            // Skip the committed cells and the first failing one, the rest are probed again
+            head += accepted < batch ? accepted + 1 : batch;
+        }
+        return removed;
+    }
+
+    // --A greedy carve ends in a minimal puzzle, usually 22-26 clues. To go lower, put one removed
+    // --orbit back and carve the rest again, keeping the change unless it lost ground.
+    private int refine(SudokuGrid puzzle, SudokuGrid solution, int[] sets, int removed, int cellsToRemove,
+                       SplittableRandom random, Symmetry symmetry) {
+        SudokuGrid before = new SudokuGrid();
+        int[] emptyOrbits = new int[SudokuGrid.CELLS];
+        for (int step = 0; step < REFINE_STEPS && removed < cellsToRemove; step++) {
+            int count = 0;
+            for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+                if (puzzle.get(cell) == 0 && symmetry.isRepresentative(cell)) emptyOrbits[count++] = cell;
+            }
+            int restored = emptyOrbits[random.nextInt(count)];
+            int partner = symmetry.partner(restored);
+
+            before.copyFrom(puzzle);
+            puzzle.set(restored, solution.get(restored));
+            puzzle.set(partner, solution.get(partner));
+            int now = removed - symmetry.orbitSize(restored);
+            now += carve(puzzle, sets, cellsToRemove - now, random, symmetry, restored);
+            if (now >= removed) {
+                removed = now;
+            } else {
+                puzzle.copyFrom(before);
+            }
+        }
+        return removed;
+    }
+
+    // --Deadly rectangles of a solved grid: cells (r1,c1),(r1,c2),(r2,c1),(r2,c2) in two boxes holding
+    // --a b / b a. Swapping a and b gives a second solution, so a unique puzzle keeps a clue in each.
+    // --Packed four cells per set.
+    static int[] unavoidableRectangles(SudokuGrid solution) {
+        int[] sets = new int[64];
+        int count = 0;
+        for (int r1 = 0; r1 < 9; r1++) {
+            for (int r2 = r1 + 1; r2 < 9; r2++) {
+                boolean sameBand = r1 / 3 == r2 / 3;
+                for (int c1 = 0; c1 < 9; c1++) {
+                    for (int c2 = c1 + 1; c2 < 9; c2++) {
+                        if (sameBand == (c1 / 3 == c2 / 3)) continue; // must span exactly two boxes
+                        int a = solution.get(r1, c1);
+                        int b = solution.get(r1, c2);
+                        if (solution.get(r2, c1) != b || solution.get(r2, c2) != a) continue;
+                        if (count + 4 > sets.length) sets = Arrays.copyOf(sets, sets.length * 2);
+                        sets[count++] = SudokuGrid.indexOf(r1, c1);
+                        sets[count++] = SudokuGrid.indexOf(r1, c2);
+                        sets[count++] = SudokuGrid.indexOf(r2, c1);
+                        sets[count++] = SudokuGrid.indexOf(r2, c2);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(sets, count);
+    }
+
+    // --Quick rejections before any solving: an emptied unavoidable set, or fewer than 8 digits
+    // --among the clues, means a second solution exists
+    private static boolean mayBeUnique(SudokuGrid puzzle, int[] sets) {
+        for (int i = 0; i < sets.length; i += 4) {
+            if (puzzle.get(sets[i]) == 0 && puzzle.get(sets[i + 1]) == 0
+                    && puzzle.get(sets[i + 2]) == 0 && puzzle.get(sets[i + 3]) == 0) return false;
+        }
+        int digits = 0;
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (puzzle.get(cell) != 0) digits |= 1 << puzzle.get(cell);
+        }
+        return Integer.bitCount(digits) >= 8;
+    }
+
+    // --Random complete grid: shuffled diagonal boxes, then a deterministic solve
+    static SudokuGrid solvedGrid(SplittableRandom random) {
+        SudokuGrid grid = new SudokuGrid();
+        int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int box = 0; box < 3; box++) {
+            for (int i = 8; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = digits[i];
+                digits[i] = digits[j];
+                digits[j] = tmp;
+            }
+            for (int i = 0; i < 9; i++) {
+                grid.set(box * 3 + i / 3, box * 3 + i % 3, digits[i]);
+            }
+        }
+        fillSolver.get().solve(grid);
+        return grid;
+    }
+
+    /**
+     * Pool thread of the shared generator, a daemon at minimum priority
+     */
+    private static final class LowPriorityWorker extends ForkJoinWorkerThread {
+        LowPriorityWorker(ForkJoinPool pool) {
+            super(pool);
+            setName("PuzzleGenerator-" + getPoolIndex());
+            setDaemon(true);
+            setPriority(Thread.MIN_PRIORITY);
+        }
+    }
+
+    /**
+     * Checks uniqueness after removing order[head..head+i] for every i in [lo, hi)
+     */
+    private static final class PrefixProbe extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SudokuGrid grid;
+        private final int[] order;
+        private final int head;
+        private final int lo;
+        private final int hi;
+        private final boolean[] unique;
+        private final Symmetry symmetry;
+        private final int[] sets;
+
+        PrefixProbe(SudokuGrid grid, int[] order, int head, int lo, int hi, boolean[] unique,
+                    Symmetry symmetry, int[] sets) {
+            this.grid = grid;
+            this.order = order;
+            this.head = head;
+            this.lo = lo;
+            this.hi = hi;
+            this.unique = unique;
+            this.symmetry = symmetry;
+            this.sets = sets;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new PrefixProbe(grid, order, head, lo, mid, unique, symmetry, sets),
+                        new PrefixProbe(grid, order, head, mid, hi, unique, symmetry, sets));
+                return;
+            }
+
+            SudokuGrid copy = grid.copy();
+            for (int i = 0; i <= lo; i++) {
+                copy.set(order[head + i], 0);
+                copy.set(symmetry.partner(order[head + i]), 0);
+            }
+            // Most removals leave a puzzle that singles still fill, which proves uniqueness
+            // without a search; only the rest pay for the solution count
+            unique[lo] = mayBeUnique(copy, sets)
+                    && (grader.get().solvesWithSingles(copy) || SudokuSolverCore.countSolutions(copy, 2) == 1);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Short, typo-checked IDs that regenerate a puzzle exactly.
+ * <p>
+ * Layout: generator version digit, difficulty letter (E/M/H), the seed in Crockford
+ * base32 and a check symbol, e.g. {@code 1HPFS9MGE7H}. Seeds are limited to 40 bits
+ * ({@link #SEED_MASK}), at most 8 seed symbols, which keeps IDs at 11 characters or less. The version must be bumped whenever
+ * {@link ParallelPuzzleGenerator} changes its output for a given seed.
+ */
+public final class PuzzleId {
+    private PuzzleId() {} // Prevent instantiation
+
+    public static final int VERSION = 3;
+    public static final long SEED_MASK = (1L << 40) - 1;
+    private static final int MAX_SEED_SYMBOLS = 8; // 40 bits, 5 per symbol
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final String CHECK_SYMBOLS = ALPHABET + "*~$=U";
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final String LETTERS = "EMH";
+
+    // --Build the ID of the puzzle generated from (difficulty, seed), throws IllegalArgumentException
+    // --for seeds outside SEED_MASK
+    public static String encode(String difficulty, long seed) {
+        if (!isEncodable(seed)) throw new IllegalArgumentException("Seed outside " + SEED_MASK + ": " + seed);
+        int level = levelOf(difficulty);
+
+        StringBuilder sb = new StringBuilder(16);
+        sb.append(VERSION).append(LETTERS.charAt(level));
+        int shift = 5 * (MAX_SEED_SYMBOLS - 1);
+        while (shift > 0 && (seed >>> shift) == 0) shift -= 5;
+        for (; shift >= 0; shift -= 5) {
+            sb.append(ALPHABET.charAt((int) ((seed >>> shift) & 31)));
+        }
+        sb.append(CHECK_SYMBOLS.charAt(checksum(seed, level)));
+        return sb.toString();
+    }
+
+    // --Seed encoded in the ID
+    public static long seedOf(String id) {
+        String normalized = normalize(id);
+        long seed = 0;
+        for (int i = 2; i < normalized.length() - 1; i++) {
+            seed = (seed << 5) | ALPHABET.indexOf(normalized.charAt(i));
+        }
+        return seed;
+    }
+
+    // --Difficulty encoded in the ID
+    public static String difficultyOf(String id) {
+        return DIFFICULTIES[LETTERS.indexOf(normalize(id).charAt(1))];
+    }
+
+    // --True if an ID can carry the seed
+    public static boolean isEncodable(long seed) {
+        return (seed & ~SEED_MASK) == 0;
+    }
+
+    public static boolean isValid(String id) {
+        try {
+            normalize(id);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // --Upper-case the ID, map Crockford look-alikes and verify version and check symbol
+    private static String normalize(String id) {
+        if (id == null || id.length() < 4 || id.length() > 16) {
+            throw new IllegalArgumentException("Invalid puzzle ID: " + id);
+        }
+
+        StringBuilder sb = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            char c = Character.toUpperCase(id.charAt(i));
+            if (i >= 2 && i < id.length() - 1) {
+                if (c == 'O') c = '0';
+                if (c == 'I' || c == 'L') c = '1';
+                if (ALPHABET.indexOf(c) < 0) throw new IllegalArgumentException("Invalid puzzle ID: " + id);
+            }
+            sb.append(c);
+        }
+
+        String normalized = sb.toString();
+        int level = LETTERS.indexOf(normalized.charAt(1));
+        if (normalized.charAt(0) != (char) ('0' + VERSION) || level < 0 || normalized.length() - 3 > MAX_SEED_SYMBOLS) {
+            throw new IllegalArgumentException("Invalid puzzle ID: " + id);
+        }
+
+        long seed = 0;
+        for (int i = 2; i < normalized.length() - 1; i++) {
+            seed = (seed << 5) | ALPHABET.indexOf(normalized.charAt(i));
+        }
+        if (CHECK_SYMBOLS.charAt(checksum(seed, level)) != normalized.charAt(normalized.length() - 1)) {
+            throw new IllegalArgumentException("Puzzle ID check failed: " + id);
+        }
+        return normalized;
+    }
+
+    private static int checksum(long seed, int level) {
+        return (int) ((Long.remainderUnsigned(seed, 37) + level * 11 + VERSION) % 37);
+    }
+
+    private static int levelOf(String difficulty) {
+        for (int i = 0; i < DIFFICULTIES.length; i++) {
+            if (DIFFICULTIES[i].equalsIgnoreCase(difficulty)) return i;
+        }
+        return 0; // unknown levels generate as easy
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a few ready puzzle/solution pairs per difficulty and refills them on
+ * low-priority background threads, so starting a game never waits on the generator.
+ * A puzzle that is not ready yet is generated on a background thread as well, never on
+ * the caller's, and delivered through a {@link Callback}.
+ */
+public final class PuzzlePool {
+
+    public static final int DEFAULT_CAPACITY = 3;
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    private static volatile PuzzlePool shared;
+
+    /**
+     * Receives a puzzle, on the caller's thread if one was ready, else on a pool thread
+     */
+    public interface Callback {
+        void onPuzzle(GeneratedPuzzle puzzle);
+    }
+
+    private final int capacity;
+    private final Map<String, BlockingQueue<GeneratedPuzzle>> ready = new HashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new HashMap<>();
+    private final ExecutorService executor;
+    private final ExecutorService urgent; // a player is waiting, normal priority
+
+    public PuzzlePool(int capacity, int threads) {
+        this.capacity = Math.max(1, capacity);
+        for (String difficulty : DIFFICULTIES) {
+            ready.put(difficulty, new ArrayBlockingQueue<>(this.capacity));
+            inFlight.put(difficulty, new AtomicInteger());
+        }
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), new PoolThreadFactory(Thread.MIN_PRIORITY));
+        this.urgent = Executors.newSingleThreadExecutor(new PoolThreadFactory(Thread.NORM_PRIORITY));
+    }
+
+    // --App-wide pool, created on first use
+    public static PuzzlePool shared() {
+        PuzzlePool pool = shared;
+        if (pool == null) {
+            synchronized (PuzzlePool.class) {
+                pool = shared;
+                if (pool == null) {
+                    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                    pool = new PuzzlePool(DEFAULT_CAPACITY, threads);
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    // --Start filling every difficulty in the background
+    public void prefill() {
+        for (String difficulty : DIFFICULTIES) {
+            refill(difficulty);
+        }
+    }
+
+    // --Hand over a ready puzzle right away, or generate one in the background if the pool is empty
+    public void take(String difficulty, Callback callback) {
+        String key = normalize(difficulty);
+        GeneratedPuzzle puzzle = ready.get(key).poll();
+        refill(key);
+        if (puzzle != null) {
+            callback.onPuzzle(puzzle);
+        } else {
+            urgent.execute(() -> callback.onPuzzle(SudokuSolverCore.generatePuzzle(key)));
+        }
+    }
+
+    // --Regenerate a shared puzzle ID in the background, throws IllegalArgumentException for malformed IDs
+    public void fromId(String puzzleId, Callback callback) {
+        if (!PuzzleId.isValid(puzzleId)) throw new IllegalArgumentException("Invalid puzzle ID: " + puzzleId);
+        urgent.execute(() -> callback.onPuzzle(SudokuSolverCore.generatePuzzleFromId(puzzleId)));
+    }
+
+    // --Number of puzzles ready for a difficulty
+    public int available(String difficulty) {
+        return ready.get(normalize(difficulty)).size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        urgent.shutdownNow();
+    }
+
+    // --Queue generation tasks until ready plus in-flight puzzles reach capacity
+    private void refill(String key) {
+        BlockingQueue<GeneratedPuzzle> queue = ready.get(key);
+        AtomicInteger pending = inFlight.get(key);
+        while (true) {
+            int current = pending.get();
+            if (queue.size() + current >= capacity) return;
+            if (!pending.compareAndSet(current, current + 1)) continue;
+
+            executor.execute(() -> {
+                try {
+                    queue.offer(SudokuSolverCore.generatePuzzle(key));
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static String normalize(String difficulty) {
+        if (difficulty != null) {
+            String key = difficulty.toLowerCase();
+            for (String known : DIFFICULTIES) {
+                if (known.equals(key)) return known;
+            }
+        }
+        return "easy";
+    }
+
+    private static final class PoolThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final int priority;
+
+        PoolThreadFactory(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PuzzlePool-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        }
+    }
+}
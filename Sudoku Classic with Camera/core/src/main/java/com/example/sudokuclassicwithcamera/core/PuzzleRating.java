@@ -0,0 +1,48 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * How hard a puzzle is for a person: the hardest technique {@link LogicalSolver} needed,
+ * the number of logical steps and how often each technique was used.
+ */
+public final class PuzzleRating {
+
+    private final boolean solved;
+    private final Technique hardest;
+    private final int steps;
+    private final int[] uses;
+
+    PuzzleRating(boolean solved, Technique hardest, int steps, int[] uses) {
+        this.solved = solved;
+        this.hardest = hardest;
+        this.steps = steps;
+        this.uses = uses;
+    }
+
+    // --False if the known techniques got stuck, the puzzle then needs guessing (or has no unique solution)
+    public boolean isSolved() {
+        return solved;
+    }
+
+    // --Hardest technique applied, null if no step was needed
+    public Technique getHardest() {
+        return hardest;
+    }
+
+    // --Tier of the hardest technique, null if no step was needed
+    public Technique.Tier getTier() {
+        return hardest == null ? null : hardest.getTier();
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public int getUses(Technique technique) {
+        return uses[technique.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return (solved ? "" : "stuck, ") + (hardest == null ? "none" : hardest.getLabel()) + ", " + steps + " steps";
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Recognised 9x9 grids keyed by a content hash of the uploaded image, so re-scanning the same
+ * photo does not pay for another recognition call.
+ * <p>
+ * Two tiers: an LRU map in memory and one small file per entry on disk, the disk tier bounded
+ * in bytes (least recently used files go first). Entries older than the TTL are dropped from both.
+ * Thread-safe.
+ */
+public final class ScanCache {
+
+    private static final String SUFFIX = ".grid";
+
+    private final File dir;
+    private final int maxMemoryEntries;
+    private final long maxDiskBytes;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> memory;
+
+    private long hits;
+    private long misses;
+
+    public ScanCache(File dir, int maxMemoryEntries, long maxDiskBytes, long ttlMillis) {
+        this(dir, maxMemoryEntries, maxDiskBytes, ttlMillis, System::currentTimeMillis);
+    }
+
+    // --Clock injectable for tests
+    ScanCache(File dir, int maxMemoryEntries, long maxDiskBytes, long ttlMillis, LongSupplier clock) {
+        this.dir = dir;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskBytes = maxDiskBytes;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.memory = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ScanCache.this.maxMemoryEntries;
+            }
+        };
+    }
+
+    // --Hex SHA-256 over the parts, e.g. the prompt and the encoded image
+    public static String keyOf(byte[]... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                digest.update(part);
+            }
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // --Cached grid (a fresh copy) or null, a disk hit is promoted to memory
+    public synchronized int[][] get(String key) {
+        long now = clock.getAsLong();
+        Entry entry = memory.get(key);
+        if (entry != null && isExpired(entry, now)) {
+            memory.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = readFromDisk(key, now);
+            if (entry != null) memory.put(key, entry);
+        }
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.grid.toArray();
+    }
+
+    public synchronized void put(String key, int[][] matrix) {
+        Entry entry = new Entry(SudokuGrid.fromArray(matrix), clock.getAsLong());
+        memory.put(key, entry);
+        writeToDisk(key, entry);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) return;
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMillis > 0 && now - entry.createdAt > ttlMillis;
+    }
+
+    // --File layout: creation time in millis, a newline and the 81 cell digits
+    private Entry readFromDisk(String key, long now) {
+        File file = new File(dir, key + SUFFIX);
+        if (!file.isFile()) return null;
+
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] data = new byte[(int) Math.min(file.length(), 128)];
+            int length = 0;
+            int read;
+            while (length < data.length && (read = in.read(data, length, data.length - length)) > 0) {
+                length += read;
+            }
+            String text = new String(data, 0, length, StandardCharsets.US_ASCII);
+            int newline = text.indexOf('\n');
+            long createdAt = Long.parseLong(text.substring(0, newline));
+            String cells = text.substring(newline + 1);
+            if (cells.length() != SudokuGrid.CELLS) throw new IOException("Bad cell count");
+
+            int[] flat = new int[SudokuGrid.CELLS];
+            for (int i = 0; i < flat.length; i++) {
+                flat[i] = cells.charAt(i) - '0';
+            }
+            Entry entry = new Entry(SudokuGrid.fromFlat(flat), createdAt);
+            if (isExpired(entry, now)) {
+                file.delete();
+                return null;
+            }
+            file.setLastModified(now); // recency for the disk LRU
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            file.delete(); // unreadable entries are just misses
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+
+        StringBuilder sb = new StringBuilder(100);
+        sb.append(entry.createdAt).append('\n');
+        for (int i = 0; i < SudokuGrid.CELLS; i++) {
+            sb.append((char) ('0' + entry.grid.get(i)));
+        }
+
+        File file = new File(dir, key + SUFFIX);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            file.delete();
+            return;
+        }
+        file.setLastModified(entry.createdAt);
+        trimDisk();
+    }
+
+    // --Delete least recently used files until the tier fits in maxDiskBytes
+    private void trimDisk() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+        if (files == null) return;
+
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= maxDiskBytes) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= maxDiskBytes) break;
+            total -= file.length();
+            file.delete();
+        }
+    }
+
+    private static final class Entry {
+        final SudokuGrid grid;
+        final long createdAt;
+
+        Entry(SudokuGrid grid, long createdAt) {
+            this.grid = grid;
+            this.createdAt = createdAt;
+        }
+    }
+}
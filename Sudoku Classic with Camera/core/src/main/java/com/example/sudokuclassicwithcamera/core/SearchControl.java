@@ -0,0 +1,81 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Node and time budget, cancellation flag and progress reporting for one solver run.
+ * <p>
+ * Engines call {@link #onNode()} once per search node. A control is meant for a single
+ * solve: its clock starts when it is created and its node count is never reset.
+ */
+public final class SearchControl {
+
+    public enum Stop { NONE, NODE_BUDGET, TIME_BUDGET, CANCELLED }
+
+    private static final int CHECK_INTERVAL = 1024; // nodes between clock and cancel checks
+
+    private final long maxNodes;
+    private final long timeoutNanos;
+    private final long progressInterval;
+    private final ProgressListener listener;
+    private final long startNanos = System.nanoTime();
+    private volatile boolean cancelled;
+    private long nodes;
+    private Stop stop = Stop.NONE;
+
+    // --maxNodes or timeoutMillis <= 0 means unlimited, listener may be null
+    public SearchControl(long maxNodes, long timeoutMillis, long progressInterval, ProgressListener listener) {
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        this.timeoutNanos = timeoutMillis > 0 ? timeoutMillis * 1_000_000L : Long.MAX_VALUE;
+        this.progressInterval = progressInterval > 0 ? progressInterval : Long.MAX_VALUE;
+        this.listener = listener;
+    }
+
+    // --Count a search node, returns false once the search has to stop
+    boolean onNode() {
+        if (stop != Stop.NONE) return false;
+
+        nodes++;
+        if (nodes > maxNodes) {
+            stop = Stop.NODE_BUDGET;
+            return false;
+        }
+        if (nodes % CHECK_INTERVAL == 0) {
+            if (cancelled) {
+                stop = Stop.CANCELLED;
+                return false;
+            }
+            if (System.nanoTime() - startNanos > timeoutNanos) {
+                stop = Stop.TIME_BUDGET;
+                return false;
+            }
+        }
+        if (listener != null && nodes % progressInterval == 0) {
+            listener.onProgress(nodes);
+        }
+        return true;
+    }
+
+    // --Ask the running search to stop, safe to call from any thread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    // --Why the search stopped early, NONE if it ran to completion
+    public Stop getStop() {
+        return stop;
+    }
+
+    /**
+     * Receives the number of nodes explored so far, on the solving thread
+     */
+    public interface ProgressListener {
+        void onProgress(long nodes);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.function.Supplier;
+
+/**
+ * Solver engines that can be selected at runtime through {@link SudokuSolverCore#setSolverEngine}.
+ */
+public enum SolverEngine {
+    BITMASK(BitmaskSolver::new),
+    DLX(DlxSolver::new);
+
+    private final Supplier<SudokuEngine> factory;
+
+    SolverEngine(Supplier<SudokuEngine> factory) {
+        this.factory = factory;
+    }
+
+    // --Create a fresh engine instance
+    public SudokuEngine create() {
+        return factory.get();
+    }
+}
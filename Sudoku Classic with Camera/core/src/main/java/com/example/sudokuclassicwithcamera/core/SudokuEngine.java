@@ -0,0 +1,23 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Common operations of the interchangeable Sudoku solver engines.
+ * Implementations may reuse internal state and are not required to be thread-safe.
+ */
+public interface SudokuEngine {
+
+    // --Solve the grid in place, returns false if it has conflicts or no solution
+    boolean solve(int[][] grid);
+
+    // --Count solutions up to limit without modifying the grid
+    int countSolutions(int[][] grid, int limit);
+
+    // --Flat grid variant of solve(int[][])
+    boolean solve(SudokuGrid grid);
+
+    // --Flat grid variant of countSolutions(int[][], int)
+    int countSolutions(SudokuGrid grid, int limit);
+
+    // --Budget and cancellation for the following calls, null to run unbounded
+    void setSearchControl(SearchControl control);
+}
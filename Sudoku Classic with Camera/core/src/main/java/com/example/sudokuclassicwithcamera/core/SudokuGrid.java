@@ -0,0 +1,237 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.Arrays;
+
+/**
+ * A 9x9 Sudoku grid stored row-major in a single {@code byte[81]}, 0 for empty cells.
+ * <p>
+ * Copies are one {@code arraycopy}. Cell indexes run 0-80 ({@code row * 9 + col}), and the
+ * static tables give every cell's row, column, box and 20 peers without any division.
+ * {@code int[][]} and flat {@code int[]} adapters remain for callers of the old API.
+ */
+public final class SudokuGrid {
+
+    public static final int CELLS = 81;
+    public static final int PEER_COUNT = 20;
+
+    // --Precomputed cell -> unit lookups
+    static final int[] ROW_OF = new int[CELLS];
+    static final int[] COL_OF = new int[CELLS];
+    static final int[] BOX_OF = new int[CELLS];
+    // --Cells of every row (0-8), column (9-17) and box (18-26)
+    static final int[][] UNITS = new int[27][9];
+    // --The 20 other cells sharing a row, column or box with each cell
+    static final int[][] PEERS = new int[CELLS][PEER_COUNT];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / 9;
+            int col = cell % 9;
+            int box = (row / 3) * 3 + col / 3;
+            ROW_OF[cell] = row;
+            COL_OF[cell] = col;
+            BOX_OF[cell] = box;
+            UNITS[row][col] = cell;
+            UNITS[9 + col][row] = cell;
+            UNITS[18 + box][(row % 3) * 3 + col % 3] = cell;
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            int count = 0;
+            for (int other = 0; other < CELLS; other++) {
+                if (other != cell && (ROW_OF[other] == ROW_OF[cell] || COL_OF[other] == COL_OF[cell]
+                        || BOX_OF[other] == BOX_OF[cell])) {
+                    PEERS[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    final byte[] cells;
+
+    public SudokuGrid() {
+        this.cells = new byte[CELLS];
+    }
+
+    private SudokuGrid(byte[] cells) {
+        this.cells = cells;
+    }
+
+    // --Grid from saved bytes, null or wrong-sized input gives an empty grid
+    public static SudokuGrid fromBytes(byte[] values) {
+        SudokuGrid grid = new SudokuGrid();
+        if (values == null || values.length != CELLS) return grid;
+        for (int i = 0; i < CELLS; i++) {
+            grid.cells[i] = sanitize(values[i]);
+        }
+        return grid;
+    }
+
+    // --Adapter for int[9][9] grids, null gives an empty grid
+    public static SudokuGrid fromArray(int[][] values) {
+        SudokuGrid grid = new SudokuGrid();
+        if (values == null) return grid;
+        for (int row = 0; row < 9 && row < values.length; row++) {
+            if (values[row] == null) continue;
+            for (int col = 0; col < 9 && col < values[row].length; col++) {
+                grid.cells[row * 9 + col] = sanitize(values[row][col]);
+            }
+        }
+        return grid;
+    }
+
+    // --Adapter for flat int[81] grids, null or wrong-sized input gives an empty grid
+    public static SudokuGrid fromFlat(int[] values) {
+        SudokuGrid grid = new SudokuGrid();
+        if (values == null || values.length != CELLS) return grid;
+        for (int i = 0; i < CELLS; i++) {
+            grid.cells[i] = sanitize(values[i]);
+        }
+        return grid;
+    }
+
+    public static int indexOf(int row, int col) {
+        return row * 9 + col;
+    }
+
+    public static int rowOf(int index) {
+        return ROW_OF[index];
+    }
+
+    public static int colOf(int index) {
+        return COL_OF[index];
+    }
+
+    public static int boxOf(int index) {
+        return BOX_OF[index];
+    }
+
+    // --Copy of the 20 peer indexes of a cell
+    public static int[] peersOf(int index) {
+        return PEERS[index].clone();
+    }
+
+    // --The i-th (0-19) peer of a cell, for hot loops that should not copy peersOf
+    public static int peerAt(int index, int i) {
+        return PEERS[index][i];
+    }
+
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public int get(int row, int col) {
+        return cells[row * 9 + col];
+    }
+
+    public void set(int index, int value) {
+        if (value < 0 || value > 9) throw new IllegalArgumentException("Invalid cell value: " + value);
+        cells[index] = (byte) value;
+    }
+
+    public void set(int row, int col, int value) {
+        set(row * 9 + col, value);
+    }
+
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    public SudokuGrid copy() {
+        return new SudokuGrid(cells.clone());
+    }
+
+    public void copyFrom(SudokuGrid other) {
+        System.arraycopy(other.cells, 0, cells, 0, CELLS);
+    }
+
+    // --Check if the value can go in the cell without repeating in a peer
+    public boolean canPlace(int index, int value) {
+        int[] peers = PEERS[index];
+        for (int i = 0; i < peers.length; i++) {
+            if (cells[peers[i]] == value) return false;
+        }
+        return true;
+    }
+
+    // --Index of the first filled cell that repeats in a peer, or -1
+    public int findConflict() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int value = cells[cell];
+            if (value != 0 && !canPlace(cell, value)) return cell;
+        }
+        return -1;
+    }
+
+    public int countEmpty() {
+        int empty = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] == 0) empty++;
+        }
+        return empty;
+    }
+
+    // --True when no cell is empty (conflicts are not checked)
+    public boolean isFilled() {
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] == 0) return false;
+        }
+        return true;
+    }
+
+    public byte[] toBytes() {
+        return cells.clone();
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[9][9];
+        copyTo(grid);
+        return grid;
+    }
+
+    // --Write the values into an existing int[9][9] grid
+    public void copyTo(int[][] grid) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            grid[ROW_OF[cell]][COL_OF[cell]] = cells[cell];
+        }
+    }
+
+    public int[] toFlat() {
+        int[] flat = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            flat[cell] = cells[cell];
+        }
+        return flat;
+    }
+
+    // --Copy int[][] values into a byte[81] buffer, out of range values become -1 so engines reject them
+    static void load(int[][] grid, byte[] out) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int value = grid[ROW_OF[cell]][COL_OF[cell]];
+            out[cell] = (byte) (value >= 0 && value <= 9 ? value : -1);
+        }
+    }
+
+    private static byte sanitize(int value) {
+        return (byte) (value >= 0 && value <= 9 ? value : 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SudokuGrid && Arrays.equals(cells, ((SudokuGrid) o).cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cells);
+    }
+
+    // --81 characters, '.' for empty cells
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(CELLS);
+        for (int cell = 0; cell < CELLS; cell++) {
+            sb.append(cells[cell] == 0 ? '.' : (char) ('0' + cells[cell]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.sudokuclassicwithcamera.Constants;
+
+/**
+ * Android-free solving and generation logic. {@code SudokuSolverUtils} in the app wraps
+ * these methods with logging and toasts; benchmarks and unit tests call them directly.
+ */
+public final class SudokuSolverCore {
+    private SudokuSolverCore() {} // Prevent instantiation
+
+    private static final int MAX_SEEDS = 4; // fresh seeds to try if a puzzle misses its rating window
+
+    private static volatile SolverEngine solverEngine = SolverEngine.BITMASK;
+    private static final ThreadLocal<SudokuEngine[]> engines =
+            ThreadLocal.withInitial(() -> new SudokuEngine[SolverEngine.values().length]);
+
+    // --Select the engine used by solveSudoku and countSolutions
+    public static void setSolverEngine(SolverEngine engine) {
+        if (engine != null) solverEngine = engine;
+    }
+
+    public static SolverEngine getSolverEngine() {
+        return solverEngine;
+    }
+
+    // --Per-thread instance of the selected engine
+    private static SudokuEngine engine() {
+        SudokuEngine[] cache = engines.get();
+        SolverEngine selected = solverEngine;
+        SudokuEngine engine = cache[selected.ordinal()];
+        if (engine == null) {
+            engine = selected.create();
+            cache[selected.ordinal()] = engine;
+        }
+        return engine;
+    }
+
+    // --Solve Sudoku with backtracking
+    public static boolean solveSudoku(int grid[][], int row, int col) {
+        if (grid == null) return false;
+
+        // If we've reached the end, the Sudoku is solved
+        if (row == 9) {
+            return true;
+        }
+
+        // Move to next row if at end of column
+        if (col == 9) {
+            return solveSudoku(grid, row + 1, 0);
+        }
+
+        // Skip already filled cells
+        if (grid[row][col] != 0) {
+            return solveSudoku(grid, row, col + 1);
+        }
+
+        // Try numbers 1-9 in order so the same grid always gives the same solution
+        for (int num = 1; num <= 9; num++) {
+            if (isSafe(grid, row, col, num)) {
+                grid[row][col] = num;
+                if (solveSudoku(grid, row, col + 1)) {
+                    return true;
+                }
+                grid[row][col] = 0; // backtrack
+            }
+        }
+
+        return false;
+    }
+
+    // --Solve Sudoku with the selected engine
+    public static boolean solveSudoku(int[][] grid) {
+        return grid != null && engine().solve(grid);
+    }
+
+    // --Solve with a node/time budget and cancellation, check control.getStop() when this returns false
+    public static boolean solveSudoku(int[][] grid, SearchControl control) {
+        if (grid == null) return false;
+
+        SudokuEngine engine = engine();
+        engine.setSearchControl(control);
+        try {
+            return engine.solve(grid);
+        } finally {
+            engine.setSearchControl(null);
+        }
+    }
+
+    // --Count solutions up to limit with the selected engine, the grid is not modified
+    public static int countSolutions(int[][] grid, int limit) {
+        return grid == null ? 0 : engine().countSolutions(grid, limit);
+    }
+
+    // --Solve a flat grid in place with the selected engine
+    public static boolean solveSudoku(SudokuGrid grid) {
+        return grid != null && engine().solve(grid);
+    }
+
+    // --Solve a flat grid with a node/time budget and cancellation
+    public static boolean solveSudoku(SudokuGrid grid, SearchControl control) {
+        if (grid == null) return false;
+
+        SudokuEngine engine = engine();
+        engine.setSearchControl(control);
+        try {
+            return engine.solve(grid);
+        } finally {
+            engine.setSearchControl(null);
+        }
+    }
+
+    // --Count solutions of a flat grid up to limit, the grid is not modified
+    public static int countSolutions(SudokuGrid grid, int limit) {
+        return grid == null ? 0 : engine().countSolutions(grid, limit);
+    }
+
+    // --Check if placing a number is safe
+    public static boolean isSafe(int[][] grid, int row, int col, int num) {
+        if (grid == null) return false;
+
+        // Check row
+        for (int x = 0; x < 9; x++) {
+            if (grid[row][x] == num) {
+                return false;
+            }
+        }
+
+        // Check column
+        for (int x = 0; x < 9; x++) {
+            if (grid[x][col] == num) {
+                return false;
+            }
+        }
+
+        // Check 3x3 box
+        int startRow = row - row % 3;
+        int startCol = col - col % 3;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (grid[i + startRow][j + startCol] == num) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // --Find the first filled cell that conflicts with another, returns {row, col} or null
+    public static int[] findConflict(int[][] grid) {
+        int cell = SudokuGrid.fromArray(grid).findConflict();
+        return cell < 0 ? null : new int[]{SudokuGrid.rowOf(cell), SudokuGrid.colOf(cell)};
+    }
+
+    // --Generate random Sudoku puzzle
+    public static int[][] generateRandomSudoku(String difficulty) {
+        return generatePuzzle(difficulty).getPuzzle();
+    }
+
+    // --Generate a puzzle from a fresh random seed, retrying other seeds while it is off target
+    public static GeneratedPuzzle generatePuzzle(String difficulty) {
+        GeneratedPuzzle generated = null;
+        for (int i = 0; i < MAX_SEEDS && (generated == null || !generated.isOnTarget()); i++) {
+            generated = generatePuzzle(difficulty, ThreadLocalRandom.current().nextLong() & PuzzleId.SEED_MASK);
+        }
+        return generated;
+    }
+
+    // --Generate the puzzle for (difficulty, seed), the same inputs always give the same puzzle
+    public static GeneratedPuzzle generatePuzzle(String difficulty, long seed) {
+        return ParallelPuzzleGenerator.shared().generate(difficulty, seed);
+    }
+
+    // --Generate a puzzle whose clues follow the symmetry and, if clues > 0, number exactly that many;
+    // --check isOnTarget(), a count the generator cannot reach returns a puzzle with more clues
+    public static GeneratedPuzzle generatePuzzle(String difficulty, Symmetry symmetry, int clues) {
+        long seed = ThreadLocalRandom.current().nextLong() & PuzzleId.SEED_MASK;
+        return ParallelPuzzleGenerator.shared().generate(difficulty, seed, symmetry, clues);
+    }
+
+    // --Regenerate a puzzle from its ID, throws IllegalArgumentException for malformed IDs
+    public static GeneratedPuzzle generatePuzzleFromId(String puzzleId) {
+        return generatePuzzle(PuzzleId.difficultyOf(puzzleId), PuzzleId.seedOf(puzzleId));
+    }
+
+    public static int getRemovalCount(String difficulty) {
+        switch (difficulty.toLowerCase()) {
+            case "easy":
+                return Constants.easy;
+            case "medium":
+                return Constants.medium;
+            case "hard":
+                return Constants.hard;
+            default:
+                return Constants.easy;
+        }
+    }
+
+    // --Copy grid
+    public static int[][] copyGrid(int[][] source) {
+        if (source == null) return null;
+        int[][] copy = new int[9][9];
+        for (int i = 0; i < 9; i++) {
+            System.arraycopy(source[i], 0, copy[i], 0, 9);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Clue layouts the generator can keep: every cell is paired with its image under the symmetry,
+ * and the two are always removed together. Cells that map to themselves (the centre, the middle
+ * column, the main diagonal) form an orbit of one.
+ */
+public enum Symmetry {
+    NONE,
+    ROTATIONAL, // 180 degrees around the centre
+    MIRROR,     // left-right around the middle column
+    DIAGONAL;   // across the main diagonal
+
+    // --Image of the cell under the symmetry
+    public int partner(int cell) {
+        int row = SudokuGrid.rowOf(cell);
+        int col = SudokuGrid.colOf(cell);
+        switch (this) {
+            case ROTATIONAL:
+                return SudokuGrid.CELLS - 1 - cell;
+            case MIRROR:
+                return SudokuGrid.indexOf(row, 8 - col);
+            case DIAGONAL:
+                return SudokuGrid.indexOf(col, row);
+            default:
+                return cell;
+        }
+    }
+
+    // --Cells in the orbit of the cell, 1 or 2
+    public int orbitSize(int cell) {
+        return partner(cell) == cell ? 1 : 2;
+    }
+
+    // --The lower cell of each orbit stands for it
+    boolean isRepresentative(int cell) {
+        return cell <= partner(cell);
+    }
+
+    // --True if the grid's filled cells follow the symmetry
+    public boolean matches(SudokuGrid grid) {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if ((grid.get(cell) == 0) != (grid.get(partner(cell)) == 0)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.sudokuclassicwithcamera.core;
+
+/**
+ * Solving techniques of {@link LogicalSolver}, easiest first. The solver always applies the
+ * first one that makes progress, so the hardest technique a puzzle needs is a fair measure of
+ * its difficulty. Techniques come in tiers of similar difficulty, see {@link #getTier()}.
+ */
+public enum Technique {
+    HIDDEN_SINGLE("Hidden single", Tier.SINGLES),
+    NAKED_SINGLE("Naked single", Tier.SINGLES),
+    POINTING("Pointing pair/triple", Tier.INTERSECTIONS),
+    CLAIMING("Box/line reduction", Tier.INTERSECTIONS),
+    NAKED_PAIR("Naked pair", Tier.SUBSETS),
+    HIDDEN_PAIR("Hidden pair", Tier.SUBSETS),
+    NAKED_TRIPLE("Naked triple", Tier.SUBSETS),
+    HIDDEN_TRIPLE("Hidden triple", Tier.SUBSETS),
+    X_WING("X-Wing", Tier.FISH),
+    SWORDFISH("Swordfish", Tier.FISH),
+    XY_WING("XY-Wing", Tier.CHAINS),
+    SIMPLE_COLORING("Simple coloring", Tier.CHAINS);
+
+    /**
+     * Groups of techniques a player learns together
+     */
+    public enum Tier {
+        SINGLES, INTERSECTIONS, SUBSETS, FISH, CHAINS
+    }
+
+    private final String label;
+    private final Tier tier;
+
+    Technique(String label, Tier tier) {
+        this.label = label;
+        this.tier = tier;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+}
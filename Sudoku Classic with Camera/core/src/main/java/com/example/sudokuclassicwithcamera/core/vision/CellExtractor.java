@@ -0,0 +1,202 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+import java.util.Arrays;
+
+/**
+ * Cuts a warped grid into its 81 cells and turns each written digit into a
+ * {@link DigitClassifier#INPUT_SIZE}-square input, MNIST style: the digit's box is scaled
+ * to 20 pixels and centred, ink = 1 and paper = 0.
+ */
+public final class CellExtractor {
+    private CellExtractor() {} // Prevent instantiation
+
+    public static final int CELL = 36;
+    public static final int WARP_SIZE = 9 * CELL;
+
+    private static final int SIZE = DigitClassifier.INPUT_SIZE;
+    private static final int PIXELS = SIZE * SIZE;
+    private static final int DIGIT_BOX = 20;
+    private static final int MARGIN = CELL / 8;        // skip the grid lines at the cell edge
+    private static final int MIN_INK = 12;             // pixels in a digit blob
+    private static final int MIN_HEIGHT = CELL * 3 / 10;
+    private static final float INK_FLOOR = 0.3f;
+
+    // --Write one input per filled cell to digits (back to back) and its cell index to cells, returns the count
+    public static int extract(GrayImage warped, float[] digits, int[] cells) {
+        boolean[] ink = warped.adaptiveThreshold(CELL / 3, 10);
+        int[] label = new int[CELL * CELL];
+        int[] stack = new int[CELL * CELL];
+        float[] darkness = new float[CELL * CELL];
+        int[] box = new int[4];
+
+        int count = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            int x0 = (cell % 9) * CELL;
+            int y0 = (cell / 9) * CELL;
+            int blob = largestCentralBlob(ink, WARP_SIZE, x0, y0, label, stack, box);
+            if (blob == 0) continue;
+
+            inkLevels(warped, x0, y0, label, blob, box, darkness);
+            normalize(darkness, CELL, box, digits, count * PIXELS);
+            cells[count++] = cell;
+        }
+        return count;
+    }
+
+    // --Normalise a single dark-on-light glyph image (used to build templates), false if it has no ink
+    public static boolean normalizeGlyph(GrayImage glyph, float[] out, int offset) {
+        int w = glyph.getWidth();
+        int h = glyph.getHeight();
+        float[] darkness = new float[w * h];
+        int minX = w, maxX = -1, minY = h, maxY = -1;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int value = glyph.get(x, y);
+                darkness[y * w + x] = (255 - value) / 255f;
+                if (value < 128) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        if (maxX < 0) return false;
+
+        normalize(darkness, w, new int[]{minX, minY, maxX, maxY}, out, offset);
+        return true;
+    }
+
+    // --Grey level of the blob's box scaled to 0 (paper) .. 1 (darkest ink), the threshold mask is too coarse for small print
+    private static void inkLevels(GrayImage warped, int x0, int y0, int[] label, int blob, int[] box, float[] out) {
+        int paperSum = 0;
+        int paperCount = 0;
+        int dark = 255;
+        for (int y = box[1]; y <= box[3]; y++) {
+            for (int x = box[0]; x <= box[2]; x++) {
+                int value = warped.get(x0 + x, y0 + y);
+                if (label[y * CELL + x] == blob) {
+                    dark = Math.min(dark, value);
+                } else if (label[y * CELL + x] == 0) {
+                    paperSum += value;
+                    paperCount++;
+                }
+            }
+        }
+        int paper = paperCount > 0 ? paperSum / paperCount : 255;
+        float range = Math.max(1, paper - dark);
+
+        for (int y = box[1]; y <= box[3]; y++) {
+            for (int x = box[0]; x <= box[2]; x++) {
+                // Other blobs inside the box (noise, a neighbouring line) count as paper
+                float level = label[y * CELL + x] == blob || label[y * CELL + x] == 0
+                        ? (paper - warped.get(x0 + x, y0 + y)) / range : 0;
+                // Blur around the strokes is cut off, the rest stretched back to 0..1
+                out[y * CELL + x] = Math.max(0f, Math.min(1f, (level - INK_FLOOR) / (1 - 2 * INK_FLOOR)));
+            }
+        }
+    }
+
+    // --Label the cell's blobs, returns the label of the biggest digit-like one crossing the centre, or 0
+    private static int largestCentralBlob(boolean[] ink, int stride, int x0, int y0,
+                                          int[] label, int[] stack, int[] box) {
+        Arrays.fill(label, 0);
+        int lo = CELL * 3 / 10;
+        int hi = CELL - lo;
+
+        int best = 0;
+        int bestSize = 0;
+        int next = 0;
+        for (int sy = MARGIN; sy < CELL - MARGIN; sy++) {
+            for (int sx = MARGIN; sx < CELL - MARGIN; sx++) {
+                int start = sy * CELL + sx;
+                if (label[start] != 0 || !ink[(y0 + sy) * stride + x0 + sx]) continue;
+
+                next++;
+                int size = 0;
+                int top = 0;
+                stack[top++] = start;
+                label[start] = next;
+                int minX = CELL, maxX = -1, minY = CELL, maxY = -1;
+                while (top > 0) {
+                    int p = stack[--top];
+                    int x = p % CELL;
+                    int y = p / CELL;
+                    size++;
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int ny = y + dy;
+                        if (ny < MARGIN || ny >= CELL - MARGIN) continue;
+                        for (int dx = -1; dx <= 1; dx++) {
+                            int nx = x + dx;
+                            if (nx < MARGIN || nx >= CELL - MARGIN) continue;
+                            int q = ny * CELL + nx;
+                            if (label[q] == 0 && ink[(y0 + ny) * stride + x0 + nx]) {
+                                label[q] = next;
+                                stack[top++] = q;
+                            }
+                        }
+                    }
+                }
+
+                boolean central = minX < hi && maxX >= lo && minY < hi && maxY >= lo;
+                boolean tall = maxY - minY + 1 >= MIN_HEIGHT;
+                // A grid line that drifted into the window spans it or hugs one of its edges
+                boolean line = (minX == MARGIN && maxX == CELL - MARGIN - 1)
+                        || (minY == MARGIN && maxY == CELL - MARGIN - 1)
+                        || (maxX - minX < 3 && (minX == MARGIN || maxX == CELL - MARGIN - 1));
+                if (central && tall && !line && size >= MIN_INK && size > bestSize) {
+                    best = next;
+                    bestSize = size;
+                    box[0] = minX;
+                    box[1] = minY;
+                    box[2] = maxX;
+                    box[3] = maxY;
+                }
+            }
+        }
+        return best;
+    }
+
+    // --Scale the box to DIGIT_BOX pixels, centred in the SIZE x SIZE output
+    private static void normalize(float[] darkness, int stride, int[] box, float[] out, int offset) {
+        int bw = box[2] - box[0] + 1;
+        int bh = box[3] - box[1] + 1;
+        float scale = (float) DIGIT_BOX / Math.max(bw, bh);
+        float cx = (box[0] + box[2] + 1) / 2f;
+        float cy = (box[1] + box[3] + 1) / 2f;
+
+        for (int oy = 0; oy < SIZE; oy++) {
+            for (int ox = 0; ox < SIZE; ox++) {
+                // Average the darkness over the source area of this output pixel
+                float sx0 = cx + (ox - SIZE / 2f) / scale;
+                float sy0 = cy + (oy - SIZE / 2f) / scale;
+                float sx1 = sx0 + 1 / scale;
+                float sy1 = sy0 + 1 / scale;
+                out[offset + oy * SIZE + ox] = coverage(darkness, stride, box, sx0, sy0, sx1, sy1);
+            }
+        }
+    }
+
+    private static float coverage(float[] darkness, int stride, int[] box,
+                                  float x0, float y0, float x1, float y1) {
+        int ix0 = Math.max(box[0], (int) Math.floor(x0));
+        int iy0 = Math.max(box[1], (int) Math.floor(y0));
+        int ix1 = Math.min(box[2], (int) Math.ceil(x1) - 1);
+        int iy1 = Math.min(box[3], (int) Math.ceil(y1) - 1);
+
+        float covered = 0;
+        for (int y = iy0; y <= iy1; y++) {
+            float hy = Math.min(y + 1, y1) - Math.max(y, y0);
+            for (int x = ix0; x <= ix1; x++) {
+                float wx = Math.min(x + 1, x1) - Math.max(x, x0);
+                covered += darkness[y * stride + x] * wx * hy;
+            }
+        }
+        return Math.min(1f, covered / ((x1 - x0) * (y1 - y0)));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+/**
+ * Classifies a batch of normalised digit images, see {@link CellExtractor}.
+ */
+public interface DigitClassifier {
+
+    int INPUT_SIZE = 28;
+
+    // --Read count images of INPUT_SIZE^2 floats stored back to back, write their digits (1-9) to out
+    // --and the probability of each answer (0-1) to confidence
+    void classify(float[] images, int count, int[] out, float[] confidence);
+}
@@ -0,0 +1,106 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+/**
+ * 8-bit grayscale image, row-major, 0 = black and 255 = white.
+ */
+public final class GrayImage {
+
+    private final int width;
+    private final int height;
+    final byte[] pixels;
+
+    public GrayImage(int width, int height) {
+        this(width, height, new byte[width * height]);
+    }
+
+    // --Wrap existing pixels, the array is not copied
+    public GrayImage(int width, int height, byte[] pixels) {
+        if (width <= 0 || height <= 0 || pixels.length != width * height) {
+            throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    // --Luminance of packed ARGB pixels, as returned by Bitmap.getPixels or BufferedImage.getRGB
+    public static GrayImage fromArgb(int[] argb, int width, int height) {
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            int c = argb[i];
+            int r = (c >> 16) & 0xFF;
+            int g = (c >> 8) & 0xFF;
+            int b = c & 0xFF;
+            pixels[i] = (byte) ((r * 77 + g * 150 + b * 29) >> 8);
+        }
+        return new GrayImage(width, height, pixels);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int get(int x, int y) {
+        return pixels[y * width + x] & 0xFF;
+    }
+
+    public void set(int x, int y, int value) {
+        pixels[y * width + x] = (byte) value;
+    }
+
+    // --Average factor x factor blocks, factor 1 returns this image
+    public GrayImage downscale(int factor) {
+        if (factor <= 1) return this;
+
+        int w = Math.max(1, width / factor);
+        int h = Math.max(1, height / factor);
+        byte[] out = new byte[w * h];
+        int area = factor * factor;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int sum = 0;
+                for (int dy = 0; dy < factor; dy++) {
+                    int row = (y * factor + dy) * width + x * factor;
+                    for (int dx = 0; dx < factor; dx++) {
+                        sum += pixels[row + dx] & 0xFF;
+                    }
+                }
+                out[y * w + x] = (byte) (sum / area);
+            }
+        }
+        return new GrayImage(w, h, out);
+    }
+
+    // --Ink mask: pixels darker than the mean of their (2 * radius + 1)^2 window by more than offset
+    boolean[] adaptiveThreshold(int radius, int offset) {
+        // Integral image with a zero first row and column
+        int stride = width + 1;
+        int[] integral = new int[stride * (height + 1)];
+        for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            for (int x = 0; x < width; x++) {
+                rowSum += pixels[y * width + x] & 0xFF;
+                integral[(y + 1) * stride + x + 1] = integral[y * stride + x + 1] + rowSum;
+            }
+        }
+
+        boolean[] ink = new boolean[width * height];
+        for (int y = 0; y < height; y++) {
+            int y0 = Math.max(0, y - radius);
+            int y1 = Math.min(height, y + radius + 1);
+            for (int x = 0; x < width; x++) {
+                int x0 = Math.max(0, x - radius);
+                int x1 = Math.min(width, x + radius + 1);
+                int area = (x1 - x0) * (y1 - y0);
+                int sum = integral[y1 * stride + x1] - integral[y0 * stride + x1]
+                        - integral[y1 * stride + x0] + integral[y0 * stride + x0];
+                ink[y * width + x] = (pixels[y * width + x] & 0xFF) * area < sum - offset * area;
+            }
+        }
+        return ink;
+    }
+}
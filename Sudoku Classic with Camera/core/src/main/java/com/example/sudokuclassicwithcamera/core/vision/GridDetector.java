@@ -0,0 +1,124 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+/**
+ * Finds the outer border of a Sudoku grid in a photo.
+ * <p>
+ * The photo is downscaled, binarised with an adaptive threshold and split into 8-connected
+ * ink blobs. The grid lines form one large, roughly square and mostly hollow blob; its corners
+ * are the blob pixels that extremise x + y and x - y.
+ */
+public final class GridDetector {
+    private GridDetector() {} // Prevent instantiation
+
+    private static final int DETECT_SIZE = 640;  // longest side used for detection
+    private static final int THRESHOLD_OFFSET = 8;
+    private static final float MIN_GRID_FRACTION = 0.25f; // of the shorter image side
+    private static final float MAX_FILL = 0.35f;          // grid lines cover little of their box
+
+    // --Corners {tlx, tly, trx, try, brx, bry, blx, bly} in image coordinates, or null if no grid
+    public static float[] detect(GrayImage image) {
+        int factor = (Math.max(image.getWidth(), image.getHeight()) + DETECT_SIZE - 1) / DETECT_SIZE;
+        GrayImage small = image.downscale(factor);
+        int w = small.getWidth();
+        int h = small.getHeight();
+        int minSide = Math.min(w, h);
+
+        boolean[] ink = small.adaptiveThreshold(Math.max(5, minSide / 40), THRESHOLD_OFFSET);
+        int[] label = new int[w * h];
+        int[] stack = new int[w * h];
+
+        float[] best = null;
+        long bestArea = 0;
+        int next = 0;
+        for (int start = 0; start < ink.length; start++) {
+            if (!ink[start] || label[start] != 0) continue;
+
+            // Flood fill one blob, tracking its box and corner extremes
+            next++;
+            int size = 0;
+            int top = 0;
+            stack[top++] = start;
+            label[start] = next;
+            int minX = w, maxX = -1, minY = h, maxY = -1;
+            int tl = start, tr = start, br = start, bl = start;
+            while (top > 0) {
+                int p = stack[--top];
+                int x = p % w;
+                int y = p / w;
+                size++;
+                if (x < minX) minX = x;
+                if (x > maxX) maxX = x;
+                if (y < minY) minY = y;
+                if (y > maxY) maxY = y;
+                if (x + y < tl % w + tl / w) tl = p;
+                if (x + y > br % w + br / w) br = p;
+                if (x - y > tr % w - tr / w) tr = p;
+                if (x - y < bl % w - bl / w) bl = p;
+
+                for (int dy = -1; dy <= 1; dy++) {
+                    int ny = y + dy;
+                    if (ny < 0 || ny >= h) continue;
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int nx = x + dx;
+                        if (nx < 0 || nx >= w) continue;
+                        int q = ny * w + nx;
+                        if (ink[q] && label[q] == 0) {
+                            label[q] = next;
+                            stack[top++] = q;
+                        }
+                    }
+                }
+            }
+
+            int boxW = maxX - minX + 1;
+            int boxH = maxY - minY + 1;
+            long area = (long) boxW * boxH;
+            if (boxW < minSide * MIN_GRID_FRACTION || boxH < minSide * MIN_GRID_FRACTION) continue;
+            if (boxW > 2 * boxH || boxH > 2 * boxW) continue;
+            if (size > area * MAX_FILL || area <= bestArea) continue;
+
+            bestArea = area;
+            best = new float[]{
+                    tl % w, tl / w, tr % w, tr / w,
+                    br % w, br / w, bl % w, bl / w
+            };
+        }
+
+        if (best == null) return null;
+        for (int i = 0; i < best.length; i++) {
+            best[i] = (best[i] + 0.5f) * factor;
+        }
+        return best;
+    }
+
+    // --Crop bounds in a width x height image for corners detected on a detectWidth wide preview of it
+    public static int[] cropBounds(float[] corners, int detectWidth, int width, int height, float margin) {
+        float scale = (float) width / detectWidth;
+        float[] scaled = new float[8];
+        for (int i = 0; i < 8; i++) {
+            scaled[i] = corners[i] * scale;
+        }
+        return cropBounds(scaled, width, height, margin);
+    }
+
+    // --Axis-aligned {left, top, right, bottom} around the corners, grown by margin times the grid size and clipped to the image
+    public static int[] cropBounds(float[] corners, int width, int height, float margin) {
+        float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < 8; i += 2) {
+            minX = Math.min(minX, corners[i]);
+            maxX = Math.max(maxX, corners[i]);
+            minY = Math.min(minY, corners[i + 1]);
+            maxY = Math.max(maxY, corners[i + 1]);
+        }
+
+        float padX = (maxX - minX) * margin;
+        float padY = (maxY - minY) * margin;
+        return new int[]{
+                Math.max(0, (int) Math.floor(minX - padX)),
+                Math.max(0, (int) Math.floor(minY - padY)),
+                Math.min(width, (int) Math.ceil(maxX + padX)),
+                Math.min(height, (int) Math.ceil(maxY + padY))
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+/**
+ * Maps a quadrilateral of a photo onto a square image with a homography.
+ */
+public final class PerspectiveWarp {
+    private PerspectiveWarp() {} // Prevent instantiation
+
+    // --Warp the quad {tlx, tly, trx, try, brx, bry, blx, bly} to a size x size image, bilinear sampling
+    public static GrayImage warp(GrayImage src, float[] corners, int size) {
+        double[] h = homography(size, corners);
+        GrayImage out = new GrayImage(size, size);
+        int maxX = src.getWidth() - 1;
+        int maxY = src.getHeight() - 1;
+
+        for (int y = 0; y < size; y++) {
+            double v = y + 0.5;
+            for (int x = 0; x < size; x++) {
+                double u = x + 0.5;
+                double d = h[6] * u + h[7] * v + 1;
+                double sx = (h[0] * u + h[1] * v + h[2]) / d - 0.5;
+                double sy = (h[3] * u + h[4] * v + h[5]) / d - 0.5;
+
+                sx = Math.max(0, Math.min(maxX, sx));
+                sy = Math.max(0, Math.min(maxY, sy));
+                int x0 = (int) sx;
+                int y0 = (int) sy;
+                int x1 = Math.min(maxX, x0 + 1);
+                int y1 = Math.min(maxY, y0 + 1);
+                double fx = sx - x0;
+                double fy = sy - y0;
+                double top = src.get(x0, y0) * (1 - fx) + src.get(x1, y0) * fx;
+                double bottom = src.get(x0, y1) * (1 - fx) + src.get(x1, y1) * fx;
+                out.set(x, y, (int) (top * (1 - fy) + bottom * fy + 0.5));
+            }
+        }
+        return out;
+    }
+
+    // --Coefficients h0..h7 mapping the square (0,0)-(size,size) onto the quad
+    static double[] homography(int size, float[] corners) {
+        double[] dst = {0, 0, size, 0, size, size, 0, size};
+        double[][] a = new double[8][9];
+        for (int i = 0; i < 4; i++) {
+            double u = dst[2 * i];
+            double v = dst[2 * i + 1];
+            double x = corners[2 * i];
+            double y = corners[2 * i + 1];
+            a[2 * i] = new double[]{u, v, 1, 0, 0, 0, -u * x, -v * x, x};
+            a[2 * i + 1] = new double[]{0, 0, 0, u, v, 1, -u * y, -v * y, y};
+        }
+
+        // Gaussian elimination with partial pivoting
+        for (int col = 0; col < 8; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 8; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) pivot = row;
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            if (Math.abs(a[col][col]) < 1e-12) throw new IllegalArgumentException("Degenerate grid corners");
+
+            for (int row = 0; row < 8; row++) {
+                if (row == col) continue;
+                double f = a[row][col] / a[col][col];
+                for (int k = col; k < 9; k++) {
+                    a[row][k] -= f * a[col][k];
+                }
+            }
+        }
+
+        double[] h = new double[8];
+        for (int i = 0; i < 8; i++) {
+            h[i] = a[i][8] / a[i][i];
+        }
+        return h;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of an on-device scan: the digits, how confident the classifier was in each filled
+ * cell, and where the grid lies in the scanned image so single cells can be cropped again.
+ */
+public final class ScanResult {
+
+    private static final int GAP = 8;          // px of white between mosaic tiles
+    private static final float INSET = 0.08f;  // of the cell size, trims the grid lines off a tile
+
+    private final GrayImage image;
+    private final float[] corners;
+    private final int[] digits = new int[81];
+    private final float[] confidence = new float[81];
+
+    ScanResult(GrayImage image, float[] corners) {
+        this.image = image;
+        this.corners = corners;
+        Arrays.fill(confidence, 1f); // empty cells are decided by ink coverage, not the classifier
+    }
+
+    void setDigit(int cell, int digit, float cellConfidence) {
+        digits[cell] = digit;
+        confidence[cell] = cellConfidence;
+    }
+
+    public int getDigit(int cell) {
+        return digits[cell];
+    }
+
+    public float getConfidence(int cell) {
+        return confidence[cell];
+    }
+
+    // --9x9 grid (0 = empty) like GenAI.parseMatrix
+    public int[][] toMatrix() {
+        int[][] grid = new int[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = digits[cell];
+        }
+        return grid;
+    }
+
+    // --Filled cells whose confidence is below the threshold, in row-major order
+    public int[] uncertainCells(float threshold) {
+        int count = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            if (confidence[cell] < threshold) count++;
+        }
+        int[] cells = new int[count];
+        int k = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            if (confidence[cell] < threshold) cells[k++] = cell;
+        }
+        return cells;
+    }
+
+    // --The given cells cut from the scanned image as tiles of tileSize px, 9 per row left to right then
+    // --top to bottom, separated by white gaps; much smaller than the photo for a remote second opinion
+    public GrayImage cellMosaic(int[] cells, int tileSize) {
+        GrayImage warped = PerspectiveWarp.warp(image, corners, 9 * tileSize);
+        int columns = Math.min(9, Math.max(1, cells.length));
+        int rows = (cells.length + 8) / 9;
+        int inset = Math.round(tileSize * INSET);
+        int inner = tileSize - 2 * inset;
+
+        GrayImage mosaic = new GrayImage(columns * (inner + GAP) + GAP, Math.max(1, rows) * (inner + GAP) + GAP);
+        for (int y = 0; y < mosaic.getHeight(); y++) {
+            for (int x = 0; x < mosaic.getWidth(); x++) {
+                mosaic.set(x, y, 255);
+            }
+        }
+
+        for (int i = 0; i < cells.length; i++) {
+            int srcX = (cells[i] % 9) * tileSize + inset;
+            int srcY = (cells[i] / 9) * tileSize + inset;
+            int dstX = GAP + (i % 9) * (inner + GAP);
+            int dstY = GAP + (i / 9) * (inner + GAP);
+            for (int y = 0; y < inner; y++) {
+                for (int x = 0; x < inner; x++) {
+                    mosaic.set(dstX + x, dstY + y, warped.get(srcX + x, srcY + y));
+                }
+            }
+        }
+        return mosaic;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+/**
+ * On-device recognition of a photographed puzzle: grid detection, perspective warp,
+ * 81-cell crop and one batched classifier call for the filled cells.
+ * <p>
+ * Instances reuse their buffers and are not thread-safe.
+ */
+public final class SudokuScanner {
+
+    private static final int PIXELS = DigitClassifier.INPUT_SIZE * DigitClassifier.INPUT_SIZE;
+
+    private final DigitClassifier classifier;
+    private final float[] digits = new float[81 * PIXELS];
+    private final int[] cells = new int[81];
+    private final int[] labels = new int[81];
+    private final float[] confidence = new float[81];
+
+    public SudokuScanner(DigitClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    // --Recognise the puzzle, returns the 9x9 grid (0 = empty) like GenAI.parseMatrix, or null if no grid is found
+    public int[][] scan(GrayImage image) {
+        ScanResult result = recognize(image);
+        return result == null ? null : result.toMatrix();
+    }
+
+    // --Recognise the puzzle with per-cell confidence, or null if no grid is found
+    public ScanResult recognize(GrayImage image) {
+        float[] corners = GridDetector.detect(image);
+        if (corners == null) return null;
+
+        GrayImage warped = PerspectiveWarp.warp(image, corners, CellExtractor.WARP_SIZE);
+        int count = CellExtractor.extract(warped, digits, cells);
+        if (count > 0) {
+            classifier.classify(digits, count, labels, confidence);
+        }
+
+        ScanResult result = new ScanResult(image, corners);
+        for (int i = 0; i < count; i++) {
+            result.setDigit(cells[i], labels[i], confidence[i]);
+        }
+        return result;
+    }
+}
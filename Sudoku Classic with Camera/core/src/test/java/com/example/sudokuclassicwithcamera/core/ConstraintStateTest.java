@@ -0,0 +1,77 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ConstraintState}, run on the host JVM.
+ */
+public class ConstraintStateTest {
+
+    private static final String SOLVED =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    @Test
+    public void conflicts_appearAndClearWithEdits() {
+        ConstraintState state = new ConstraintState(new SudokuGrid());
+        assertTrue(state.isValid());
+
+        state.set(SudokuGrid.indexOf(0, 0), 5);
+        state.set(SudokuGrid.indexOf(0, 8), 5); // same row
+        assertFalse(state.isValid());
+        assertTrue(state.isConflict(SudokuGrid.indexOf(0, 0)));
+        assertTrue(state.isConflict(SudokuGrid.indexOf(0, 8)));
+        assertEquals(2, state.getConflictCount());
+        assertEquals(SudokuGrid.indexOf(0, 0), state.firstConflict());
+
+        state.set(SudokuGrid.indexOf(1, 1), 5); // same box as (0,0), so that one is in two units
+        assertEquals(3, state.getConflictCount());
+
+        state.set(SudokuGrid.indexOf(0, 0), 0);
+        assertTrue(state.isValid());
+        assertEquals(-1, state.firstConflict());
+        assertEquals(2, state.getFilledCount());
+    }
+
+    @Test
+    public void solvedGrid_isFullAndValid() {
+        SudokuGrid grid = SudokuGrid.fromFlat(flat(SOLVED));
+        ConstraintState state = new ConstraintState(grid);
+        assertTrue(state.isSolved());
+
+        state.set(40, 0);
+        assertFalse(state.isFull());
+        assertTrue(state.isValid());
+        assertEquals(0, grid.get(40)); // edits write through to the bound grid
+    }
+
+    @Test
+    public void randomEdits_matchFullRescan() {
+        SplittableRandom random = new SplittableRandom(21);
+        SudokuGrid grid = new SudokuGrid();
+        ConstraintState state = new ConstraintState(grid);
+
+        for (int step = 0; step < 20_000; step++) {
+            state.set(random.nextInt(81), random.nextInt(10));
+
+            assertEquals(grid.findConflict() < 0, state.isValid());
+            assertEquals(grid.findConflict(), state.firstConflict());
+            assertEquals(grid.isFilled(), state.isFull());
+            if (step % 100 == 0) {
+                for (int cell = 0; cell < 81; cell++) {
+                    boolean expected = grid.get(cell) != 0 && !grid.canPlace(cell, grid.get(cell));
+                    assertEquals("step " + step + " cell " + cell, expected, state.isConflict(cell));
+                }
+            }
+        }
+    }
+
+    private static int[] flat(String digits) {
+        int[] values = new int[81];
+        for (int i = 0; i < 81; i++) values[i] = digits.charAt(i) - '0';
+        return values;
+    }
+}
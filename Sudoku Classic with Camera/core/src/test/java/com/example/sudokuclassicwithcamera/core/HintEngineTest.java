@@ -0,0 +1,88 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HintEngine}, run on the host JVM.
+ */
+public class HintEngineTest {
+
+    private static final String SWORDFISH =
+            "...3.....2.7......93...8..4...2...1...9...7.......5863....7....4.29...35..6.1..9.";
+
+    @Test
+    public void followingHints_solvesThePuzzle() {
+        SudokuGrid grid = parse(SWORDFISH);
+        SudokuGrid solution = grid.copy();
+        assertTrue(SudokuSolverCore.solveSudoku(solution));
+
+        HintEngine hints = new HintEngine();
+        boolean sawSwordfish = false;
+        while (grid.countEmpty() > 0) {
+            Hint hint = hints.next(grid);
+            assertNotNull(hint);
+            assertEquals(0, grid.get(hint.getCell()));
+            assertEquals(solution.get(hint.getCell()), hint.getDigit());
+            assertTrue(hint.getSupport().length > 0);
+            sawSwordfish |= hint.getTechnique() == Technique.SWORDFISH;
+            grid.set(hint.getCell(), hint.getDigit());
+        }
+        assertTrue(sawSwordfish);
+        assertNull(hints.next(grid));
+    }
+
+    @Test
+    public void editsBetweenHints_areFollowed() {
+        SudokuGrid grid = parse("53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79");
+        SudokuGrid solution = grid.copy();
+        assertTrue(SudokuSolverCore.solveSudoku(solution));
+        HintEngine hints = new HintEngine();
+
+        Hint first = hints.next(grid);
+        grid.set(first.getCell(), first.getDigit());
+
+        // The player fills some other cell correctly, then undoes the hinted one
+        int other = firstEmpty(grid);
+        grid.set(other, solution.get(other));
+        Hint second = hints.next(grid);
+        assertEquals(solution.get(second.getCell()), second.getDigit());
+        grid.set(first.getCell(), 0);
+        Hint again = hints.next(grid);
+        assertEquals(solution.get(again.getCell()), again.getDigit());
+
+        // A conflicting digit leaves nothing to deduce
+        int empty = firstEmpty(grid);
+        for (int peer : SudokuGrid.peersOf(empty)) {
+            if (grid.get(peer) != 0) {
+                grid.set(empty, grid.get(peer));
+                break;
+            }
+        }
+        assertTrue(grid.findConflict() >= 0);
+        assertNull(hints.next(grid));
+    }
+
+    @Test
+    public void hintText_namesTechniqueAndCell() {
+        Hint hint = new Hint(SudokuGrid.indexOf(2, 3), 5, Technique.HIDDEN_SINGLE, new int[0]);
+        assertEquals("Hidden single: 5 in row 3, column 4", hint.toString());
+    }
+
+    private static int firstEmpty(SudokuGrid grid) {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (grid.get(cell) == 0) return cell;
+        }
+        return -1;
+    }
+
+    private static SudokuGrid parse(String line) {
+        SudokuGrid grid = new SudokuGrid();
+        for (int i = 0; i < SudokuGrid.CELLS; i++) {
+            char c = line.charAt(i);
+            grid.set(i, c == '.' ? 0 : c - '0');
+        }
+        return grid;
+    }
+}
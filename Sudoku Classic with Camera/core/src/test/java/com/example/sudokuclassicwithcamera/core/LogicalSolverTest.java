@@ -0,0 +1,104 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LogicalSolver}, run on the host JVM.
+ */
+public class LogicalSolverTest {
+
+    @Test
+    public void classicPuzzle_needsSinglesOnly() {
+        SudokuGrid puzzle = parse("53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79");
+        PuzzleRating rating = new LogicalSolver().rate(puzzle);
+
+        assertTrue(rating.isSolved());
+        assertEquals(Technique.Tier.SINGLES, rating.getTier());
+        assertEquals(51, rating.getSteps()); // one placement per empty cell
+        assertEquals(51, puzzle.countEmpty()); // rate() leaves the puzzle alone
+    }
+
+    @Test
+    public void eachTechnique_isNeededWhereExpected() {
+        assertHardest(Technique.POINTING,
+                "....65..762..7..1.........3..5...9.1....538..3....7..6871.....2..4....5....4.....");
+        assertHardest(Technique.CLAIMING,
+                "1...4...99.2..6..............4.1...2..3.....66.5.8..34.374.1..........2......79..");
+        assertHardest(Technique.NAKED_PAIR,
+                "........9.28...73.436...1......2...7.....38....37...2.8.4.....6.629.5..3..9..8...");
+        assertHardest(Technique.HIDDEN_PAIR,
+                "...5..9.2.6..1...872..9.....53...6....6....1.28.6........45...9...2.3...8.4.61...");
+        assertHardest(Technique.NAKED_TRIPLE,
+                "7.2..3...9.8.....66....734...........9..46..1..612.7..5...9.......8.21..8......9.");
+        assertHardest(Technique.HIDDEN_TRIPLE,
+                "..54....914...7....2........8.1...4..5..38.....7...89.5..........3...2676......14");
+        assertHardest(Technique.SWORDFISH,
+                "...3.....2.7......93...8..4...2...1...9...7.......5863....7....4.29...35..6.1..9.");
+        assertHardest(Technique.XY_WING,
+                "9..42....5...8.3.6..1.....4...1.7....7..4..8...9.......8..7.54....2.4.37...9.....");
+        assertHardest(Technique.SIMPLE_COLORING,
+                "..28...74.1....6....9...21.5.16.4.......8.7..39.2.1....259.6...................97");
+    }
+
+    @Test
+    public void puzzleNeedingGuesses_isStuckWithoutWrongPlacements() {
+        SudokuGrid puzzle = parse("1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1");
+        SudokuGrid solution = puzzle.copy();
+        assertTrue(SudokuSolverCore.solveSudoku(solution));
+
+        SudokuGrid partial = puzzle.copy();
+        PuzzleRating rating = new LogicalSolver().solve(partial);
+        assertFalse(rating.isSolved());
+        assertMatches(solution, partial);
+    }
+
+    @Test
+    public void generatedPuzzles_fallInTheirLevelWindow() {
+        for (String difficulty : new String[]{"easy", "medium", "hard"}) {
+            for (long seed = 0; seed < 5; seed++) {
+                GeneratedPuzzle generated = SudokuSolverCore.generatePuzzle(difficulty, seed);
+                PuzzleRating rating = generated.getRating();
+                assertTrue(difficulty + " " + seed, generated.isOnTarget());
+                assertEquals(difficulty + " " + seed + ": " + rating, 0,
+                        ParallelPuzzleGenerator.tierDistance(difficulty, rating));
+
+                SudokuGrid solved = generated.getPuzzleGrid();
+                new LogicalSolver().solve(solved);
+                assertMatches(generated.getSolutionGrid(), solved);
+            }
+        }
+        // The windows are disjoint, medium never needs singles only and hard needs more than medium
+        assertTrue(SudokuSolverCore.generatePuzzle("medium", 1).getRating().getTier().compareTo(Technique.Tier.SINGLES) > 0);
+        assertTrue(SudokuSolverCore.generatePuzzle("hard", 1).getRating().getTier().compareTo(Technique.Tier.SUBSETS) > 0);
+    }
+
+    private static void assertHardest(Technique expected, String line) {
+        SudokuGrid puzzle = parse(line);
+        SudokuGrid solution = puzzle.copy();
+        assertTrue(SudokuSolverCore.solveSudoku(solution));
+
+        PuzzleRating rating = new LogicalSolver().solve(puzzle);
+        assertTrue(line, rating.isSolved());
+        assertEquals(line, expected, rating.getHardest());
+        assertTrue(rating.getUses(expected) > 0);
+        assertMatches(solution, puzzle);
+    }
+
+    // --Every filled cell of actual agrees with the solution
+    private static void assertMatches(SudokuGrid solution, SudokuGrid actual) {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            if (actual.get(cell) != 0) assertEquals("cell " + cell, solution.get(cell), actual.get(cell));
+        }
+    }
+
+    private static SudokuGrid parse(String line) {
+        SudokuGrid grid = new SudokuGrid();
+        for (int i = 0; i < SudokuGrid.CELLS; i++) {
+            char c = line.charAt(i);
+            grid.set(i, c == '.' ? 0 : c - '0');
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit and fuzz tests for {@link MatrixParser} and {@link GeminiResponseReader} on the kind of
+ * messy output models produce, run on the host JVM.
+ */
+public class MatrixParserTest {
+
+    private static final String PUZZLE =
+            "530070000600195000098000060800060003400803001700020006060000280000419005000080079";
+
+    // --The puzzle as [[5,3,0,...],...] with the given cell, row and line separators
+    static String nested(String puzzle, String empty, String cellSep, String rowSep) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int r = 0; r < 9; r++) {
+            if (r > 0) sb.append(rowSep);
+            sb.append('[');
+            for (int c = 0; c < 9; c++) {
+                if (c > 0) sb.append(cellSep);
+                char v = puzzle.charAt(r * 9 + c);
+                sb.append(v == '0' ? empty : String.valueOf(v));
+            }
+            sb.append(']');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static void assertPuzzle(String text, float minConfidence) {
+        MatrixParser.Result result = MatrixParser.parse(text);
+        assertTrue(result + " for " + text, result.isSuccess());
+        assertEquals(PUZZLE, result.getGrid().toString().replace('.', '0'));
+        assertTrue("confidence " + result.getConfidence(), result.getConfidence() >= minConfidence);
+    }
+
+    @Test
+    public void canonicalOutput_fullConfidence() {
+        MatrixParser.Result result = MatrixParser.parse(nested(PUZZLE, "0", ",", ","));
+        assertTrue(result.isSuccess());
+        assertEquals(1f, result.getConfidence(), 0f);
+    }
+
+    @Test
+    public void messyOutputs_decodeToTheSameGrid() {
+        assertPuzzle("```json\n" + nested(PUZZLE, "0", ", ", ",\n  ") + "\n```", 1f);
+        assertPuzzle("Here is the grid:\n" + nested(PUZZLE, "0", ",", ",") + "\nLet me know!", 1f);
+        assertPuzzle(nested(PUZZLE, "null", ",", ","), 0.0f);
+        assertPuzzle(nested(PUZZLE, "\"\"", ",", ","), 0.0f);
+        assertPuzzle(nested(PUZZLE, ".", " ", " "), 0.0f);
+        assertPuzzle(nested(PUZZLE, "0", ",", ",").replace("]", ",]"), 0.9f); // trailing commas
+        assertPuzzle(nested(PUZZLE, "0", ",", ",").replaceAll("([0-9])", "\"$1\""), 0.0f);
+        assertPuzzle(nested(PUZZLE, "0", ",", ",").substring(0, 180), 0.85f); // outer ']' cut off
+        assertPuzzle(PUZZLE, 0.5f);
+        assertPuzzle(PUZZLE.replace('0', '.').replaceAll("(.{9})", "$1\n"), 0.5f);
+    }
+
+    @Test
+    public void malformedOutputs_reportWhereParsingFailed() {
+        String canonical = nested(PUZZLE, "0", ",", ",");
+
+        MatrixParser.Result shortRow = MatrixParser.parse(canonical.replaceFirst("5,3,0,", "5,3,"));
+        assertFalse(shortRow.isSuccess());
+        assertEquals("Row 1 has 8 cells", shortRow.getError());
+
+        MatrixParser.Result bigNumber = MatrixParser.parse(canonical.replaceFirst("5,3", "15,3"));
+        assertEquals(2, bigNumber.getErrorOffset());
+
+        MatrixParser.Result eightRows = MatrixParser.parse(canonical.substring(0, canonical.lastIndexOf(",[")) + "]");
+        assertEquals("Expected row 9 of 9", eightRows.getError());
+
+        MatrixParser.Result junk = MatrixParser.parse("[[5,3,x,0,7,0,0,0,0]]");
+        assertEquals(6, junk.getErrorOffset());
+
+        assertFalse(MatrixParser.parse("No Sudoku grid found in the image.").isSuccess());
+        assertFalse(MatrixParser.parse(null).isSuccess());
+    }
+
+    @Test
+    public void conflictingGrid_lowersConfidence() {
+        MatrixParser.Result result = MatrixParser.parse(nested("55" + PUZZLE.substring(2), "0", ",", ","));
+        assertTrue(result.isSuccess());
+        assertTrue(result.getConfidence() <= 0.5f);
+    }
+
+    @Test
+    public void fuzzedOutputs_neverThrowAndStayInRange() {
+        String canonical = nested(PUZZLE, "0", ", ", ",\n");
+        String alphabet = "[],0123456789 .\n\"_-nulxN";
+        SplittableRandom random = new SplittableRandom(17);
+
+        for (int round = 0; round < 20_000; round++) {
+            StringBuilder sb = new StringBuilder(canonical);
+            int edits = 1 + random.nextInt(6);
+            for (int e = 0; e < edits && sb.length() > 0; e++) {
+                int at = random.nextInt(sb.length());
+                switch (random.nextInt(3)) {
+                    case 0: sb.deleteCharAt(at); break;
+                    case 1: sb.insert(at, alphabet.charAt(random.nextInt(alphabet.length()))); break;
+                    default: sb.setCharAt(at, alphabet.charAt(random.nextInt(alphabet.length()))); break;
+                }
+            }
+
+            MatrixParser.Result result = MatrixParser.parse(sb);
+            if (result.isSuccess()) {
+                SudokuGrid grid = result.getGrid();
+                for (int i = 0; i < SudokuGrid.CELLS; i++) {
+                    assertTrue(grid.get(i) >= 0 && grid.get(i) <= 9);
+                }
+                assertTrue(result.getConfidence() >= 0f && result.getConfidence() <= 1f);
+            } else {
+                assertTrue(result.getErrorOffset() >= 0 && result.getErrorOffset() <= sb.length());
+                assertNotNull(result.getError());
+            }
+        }
+    }
+
+    @Test
+    public void responseReader_extractsFirstCandidateText() throws IOException {
+        String json = "{\"promptFeedback\":{\"text\":\"not this\",\"list\":[1,{\"a\":[true,null]}]},"
+                + "\"candidates\":[{\"index\":0,\"content\":{\"role\":\"model\",\"parts\":["
+                + "{\"text\":\"```json\\n[[5,3],\\n\\\"x\\\" \\u00e9]\\n```\"},{\"text\":\"second\"}]}},"
+                + "{\"content\":{\"parts\":[{\"text\":\"other candidate\"}]}}],"
+                + "\"usageMetadata\":{\"totalTokenCount\":12}}";
+
+        String text = new GeminiResponseReader(new StringReader(json), 1024).readText();
+        assertEquals("```json\n[[5,3],\n\"x\" \u00e9]\n```", text);
+    }
+
+    @Test
+    public void responseReader_handlesMissingTextAndLimits() throws IOException {
+        assertNull(new GeminiResponseReader(new StringReader("{\"candidates\":[]}"), 1024).readText());
+        assertNull(new GeminiResponseReader(new StringReader("{\"error\":{\"code\":429}}"), 1024).readText());
+        assertNull(new GeminiResponseReader(new StringReader(""), 1024).readText());
+
+        String longText = "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + "1".repeat(200) + "\"}]}}]}";
+        try {
+            new GeminiResponseReader(new StringReader(longText), 100).readText();
+            fail("Expected the length limit to fail");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("100"));
+        }
+    }
+
+    @Test
+    public void parseDigits_readsListAnswers() {
+        assertArrayEquals(new int[]{5, 3, 0}, MatrixParser.parseDigits("```json\n[5, 3, 0]\n```", 3));
+        assertArrayEquals(new int[]{7, 1}, MatrixParser.parseDigits("7 1", 2));
+        assertNull(MatrixParser.parseDigits("[5, 3]", 3));
+        assertNull(MatrixParser.parseDigits("[5, 3, 1, 2]", 3));
+        assertNull(MatrixParser.parseDigits("[12, 3]", 2));
+        assertNull(MatrixParser.parseDigits(null, 1));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import com.example.sudokuclassicwithcamera.Constants;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ParallelPuzzleGenerator}, run on the host JVM.
+ */
+public class ParallelPuzzleGeneratorTest {
+
+    @Test
+    public void sameSeed_givesSamePuzzle_forAnyThreadCount() {
+        GeneratedPuzzle expected = generate(1, "hard", 42L);
+        for (int threads : new int[]{2, 4, 8}) {
+            GeneratedPuzzle actual = generate(threads, "hard", 42L);
+            assertArrayEquals(expected.getPuzzle(), actual.getPuzzle());
+            assertArrayEquals(expected.getSolution(), actual.getSolution());
+        }
+    }
+
+    @Test
+    public void differentSeeds_giveDifferentPuzzles() {
+        GeneratedPuzzle first = generate(4, "easy", 1L);
+        GeneratedPuzzle second = generate(4, "easy", 2L);
+        assertFalse(java.util.Arrays.deepEquals(first.getPuzzle(), second.getPuzzle()));
+    }
+
+    @Test
+    public void everyDifficulty_reachesRequestedRemovals_withUniqueSolution() {
+        String[] difficulties = {"easy", "medium", "hard"};
+        int[] removals = {Constants.easy, Constants.medium, Constants.hard};
+        for (int i = 0; i < difficulties.length; i++) {
+            for (long seed = 0; seed < 5; seed++) {
+                GeneratedPuzzle generated = generate(4, difficulties[i], seed);
+                int[][] puzzle = generated.getPuzzle();
+
+                assertEquals(removals[i], countEmpty(puzzle));
+                assertEquals(1, SudokuSolverCore.countSolutions(puzzle, 2));
+
+                int[][] solved = SudokuSolverCore.copyGrid(puzzle);
+                assertTrue(SudokuSolverCore.solveSudoku(solved));
+                assertArrayEquals(generated.getSolution(), solved);
+            }
+        }
+    }
+
+    @Test
+    public void symmetricModes_keepTheirPattern() {
+        for (Symmetry symmetry : new Symmetry[]{Symmetry.ROTATIONAL, Symmetry.MIRROR, Symmetry.DIAGONAL}) {
+            GeneratedPuzzle generated = generate(2, "medium", 1L, symmetry, 0);
+            SudokuGrid puzzle = generated.getPuzzleGrid();
+
+            assertTrue(symmetry.name(), symmetry.matches(puzzle));
+            assertEquals(Constants.medium, puzzle.countEmpty());
+            assertEquals(1, SudokuSolverCore.countSolutions(puzzle, 2));
+            assertNull(generated.getId()); // IDs only encode the default mode
+        }
+    }
+
+    @Test
+    public void exactClueMode_reachesTheCount_forAnyThreadCount() {
+        GeneratedPuzzle expected = generate(1, "easy", 7L, Symmetry.ROTATIONAL, 24);
+        SudokuGrid puzzle = expected.getPuzzleGrid();
+        assertTrue(expected.isOnTarget());
+        assertEquals(24, SudokuGrid.CELLS - puzzle.countEmpty());
+        assertTrue(Symmetry.ROTATIONAL.matches(puzzle));
+        assertEquals(1, SudokuSolverCore.countSolutions(puzzle, 2));
+
+        GeneratedPuzzle actual = generate(4, "easy", 7L, Symmetry.ROTATIONAL, 24);
+        assertArrayEquals(expected.getPuzzle(), actual.getPuzzle());
+
+        // Below what a single greedy carve usually reaches
+        GeneratedPuzzle refined = generate(2, "hard", 3L, Symmetry.NONE, 22);
+        assertTrue(refined.isOnTarget());
+        assertEquals(22, SudokuGrid.CELLS - refined.getPuzzleGrid().countEmpty());
+    }
+
+    @Test
+    public void exactClueMode_flagsAMissedCount() {
+        // 18 symmetric clues are out of reach of carving and swapping, the miss must not look like a hit
+        GeneratedPuzzle generated = generate(1, "hard", 3L, Symmetry.ROTATIONAL, 18);
+        SudokuGrid puzzle = generated.getPuzzleGrid();
+        assertFalse(generated.isOnTarget());
+        assertTrue(SudokuGrid.CELLS - puzzle.countEmpty() > 18);
+        assertEquals(18, generated.getRequestedClues());
+        assertEquals(1, SudokuSolverCore.countSolutions(puzzle, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exactClueMode_rejectsImpossibleCounts() {
+        ParallelPuzzleGenerator.shared().generate("easy", 1L, Symmetry.NONE, 16);
+    }
+
+    @Test
+    public void deadlyRectangles_giveSecondSolutions() {
+        GeneratedPuzzle generated = generate(1, "easy", 5L);
+        SudokuGrid solution = generated.getSolutionGrid();
+        int[] sets = ParallelPuzzleGenerator.unavoidableRectangles(solution);
+        assertEquals(0, sets.length % 4);
+
+        for (int i = 0; i < sets.length; i += 4) {
+            SudokuGrid puzzle = solution.copy();
+            for (int k = 0; k < 4; k++) puzzle.set(sets[i + k], 0);
+            assertEquals(2, SudokuSolverCore.countSolutions(puzzle, 2));
+        }
+    }
+
+    @Test
+    public void metrics_recordEachMode() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            ParallelPuzzleGenerator generator = new ParallelPuzzleGenerator(pool);
+            generator.generate("easy", 1L);
+            generator.generate("easy", 2L);
+            generator.generate("hard", 1L, Symmetry.MIRROR, 26);
+
+            GeneratorMetrics.Entry easy = generator.metrics().get("easy", Symmetry.NONE, 0);
+            assertEquals(2, easy.getCount());
+            assertEquals(2, easy.getReached());
+            assertTrue(easy.getMaxMillis() >= easy.getMeanMillis());
+            assertEquals("hard/mirror/26 clues", generator.metrics().get("hard", Symmetry.MIRROR, 26).getKey());
+            assertEquals(2, generator.metrics().snapshot().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static GeneratedPuzzle generate(int threads, String difficulty, long seed, Symmetry symmetry, int clues) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new ParallelPuzzleGenerator(pool).generate(difficulty, seed, symmetry, clues);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static GeneratedPuzzle generate(int threads, String difficulty, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new ParallelPuzzleGenerator(pool).generate(difficulty, seed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int countEmpty(int[][] grid) {
+        int empty = 0;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value == 0) empty++;
+            }
+        }
+        return empty;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PencilMarks}, run on the host JVM.
+ */
+public class PencilMarksTest {
+
+    @Test
+    public void fillAll_marksExactlyThePlaceableDigits() {
+        SudokuGrid grid = SudokuSolverCore.generatePuzzle("hard", 3).getPuzzleGrid();
+        PencilMarks marks = new PencilMarks();
+        marks.fillAll(grid);
+
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            for (int digit = 1; digit <= 9; digit++) {
+                boolean expected = grid.get(cell) == 0 && grid.canPlace(cell, digit);
+                assertEquals("cell " + cell + " digit " + digit, expected, marks.has(cell, digit));
+            }
+        }
+    }
+
+    @Test
+    public void place_removesDigitFromPeersOnly() {
+        PencilMarks marks = new PencilMarks();
+        int cell = SudokuGrid.indexOf(4, 4);
+        for (int other = 0; other < SudokuGrid.CELLS; other++) {
+            marks.toggle(other, 7);
+            marks.toggle(other, 2);
+        }
+
+        marks.place(cell, 7);
+        assertEquals(0, marks.get(cell));
+        for (int peer : SudokuGrid.peersOf(cell)) {
+            assertFalse(marks.has(peer, 7));
+            assertTrue(marks.has(peer, 2));
+        }
+        assertTrue(marks.has(SudokuGrid.indexOf(0, 0), 7)); // not a peer
+    }
+
+    @Test
+    public void toggleAndRestore_roundTrip() {
+        PencilMarks marks = new PencilMarks();
+        assertTrue(marks.toggle(10, 5));
+        assertFalse(marks.toggle(10, 5));
+        marks.toggle(10, 9);
+        marks.toggle(80, 1);
+
+        PencilMarks restored = new PencilMarks();
+        restored.copyFrom(marks.toArray());
+        assertEquals(1 << 8, restored.get(10));
+        assertEquals(1, restored.get(80));
+
+        restored.copyFrom(null);
+        assertEquals(0, restored.get(10));
+    }
+}
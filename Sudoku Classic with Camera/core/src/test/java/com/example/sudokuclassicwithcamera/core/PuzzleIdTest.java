@@ -0,0 +1,74 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PuzzleId} and seeded generation, run on the host JVM.
+ */
+public class PuzzleIdTest {
+
+    @Test
+    public void encode_roundTripsSeedAndDifficulty() {
+        long[] seeds = {0L, 1L, 31L, 32L, PuzzleId.SEED_MASK, 0x5DEECE66DL, 1L << 39};
+        String[] difficulties = {"easy", "medium", "hard"};
+        for (long seed : seeds) {
+            for (String difficulty : difficulties) {
+                String id = PuzzleId.encode(difficulty, seed);
+                assertTrue(id, PuzzleId.isValid(id));
+                assertEquals(seed, PuzzleId.seedOf(id));
+                assertEquals(difficulty, PuzzleId.difficultyOf(id));
+            }
+        }
+    }
+
+    @Test
+    public void oversizedSeeds_areRejected() {
+        assertFalse(PuzzleId.isEncodable(PuzzleId.SEED_MASK + 1));
+        assertFalse(PuzzleId.isEncodable(-1L));
+        try {
+            PuzzleId.encode("easy", -1L);
+            fail("Expected a 64-bit seed to be refused");
+        } catch (IllegalArgumentException expected) {
+            // IDs only carry 40 bits
+        }
+
+        // Nine seed symbols would wrap past 40 bits and alias a shorter ID, whatever the check symbol
+        String id = PuzzleId.encode("hard", PuzzleId.SEED_MASK);
+        String longer = id.substring(0, 2) + "G" + id.substring(2, id.length() - 1);
+        for (char check : "0123456789ABCDEFGHJKMNPQRSTVWXYZ*~$=U".toCharArray()) {
+            assertFalse(PuzzleId.isValid(longer + check));
+        }
+    }
+
+    @Test
+    public void appSeeds_giveShortIds() {
+        assertTrue(PuzzleId.encode("hard", PuzzleId.SEED_MASK).length() <= 11);
+    }
+
+    @Test
+    public void isValid_rejectsTyposAndAcceptsLookAlikes() {
+        String id = PuzzleId.encode("medium", 123456789L);
+        assertTrue(PuzzleId.isValid(id.toLowerCase()));
+
+        char[] typo = id.toCharArray();
+        typo[3] = typo[3] == '7' ? '8' : '7';
+        assertFalse(PuzzleId.isValid(new String(typo)));
+
+        assertFalse(PuzzleId.isValid(null));
+        assertFalse(PuzzleId.isValid("2E00"));
+        assertFalse(PuzzleId.isValid((PuzzleId.VERSION - 1) + id.substring(1))); // older generator
+        assertFalse(PuzzleId.isValid("1X123"));
+    }
+
+    @Test
+    public void generatePuzzleFromId_regeneratesTheSamePuzzle() {
+        GeneratedPuzzle original = SudokuSolverCore.generatePuzzle("hard");
+        GeneratedPuzzle again = SudokuSolverCore.generatePuzzleFromId(original.getId());
+
+        assertEquals(original.getId(), again.getId());
+        assertArrayEquals(original.getPuzzle(), again.getPuzzle());
+        assertArrayEquals(original.getSolution(), again.getSolution());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ScanCache}, run on the host JVM.
+ */
+public class ScanCacheTest {
+
+    private static final long HOUR = 3_600_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final long[] now = {1_000_000};
+
+    private ScanCache newCache(File dir, int memoryEntries, long diskBytes) {
+        return new ScanCache(dir, memoryEntries, diskBytes, HOUR, () -> now[0]);
+    }
+
+    private static int[][] grid(int value) {
+        int[][] matrix = new int[9][9];
+        matrix[4][4] = value;
+        return matrix;
+    }
+
+    @Test
+    public void putThenGet_hitsAndCountsMisses() {
+        ScanCache cache = newCache(folder.getRoot(), 4, 10_000);
+        String key = ScanCache.keyOf("photo".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(cache.get(key));
+        cache.put(key, grid(7));
+        assertArrayEquals(grid(7), cache.get(key));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void diskTier_survivesNewInstance() {
+        File dir = folder.getRoot();
+        newCache(dir, 4, 10_000).put("a", grid(3));
+
+        ScanCache reopened = newCache(dir, 4, 10_000);
+        assertArrayEquals(grid(3), reopened.get("a"));
+    }
+
+    @Test
+    public void expiredEntries_areMisses() {
+        File dir = folder.getRoot();
+        ScanCache cache = newCache(dir, 4, 10_000);
+        cache.put("a", grid(5));
+
+        now[0] += HOUR + 1;
+        assertNull(cache.get("a"));
+        assertNull(newCache(dir, 4, 10_000).get("a"));
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void diskTier_evictsLeastRecentlyUsed() {
+        File dir = folder.getRoot();
+        ScanCache cache = newCache(dir, 1, 250); // each entry is ~89 bytes on disk, room for two
+        cache.put("a", grid(1));
+        now[0] += 1000;
+        cache.put("b", grid(2));
+        now[0] += 1000;
+        cache.get("a"); // a is now more recent than b
+        now[0] += 1000;
+        cache.put("c", grid(3));
+
+        ScanCache reopened = newCache(dir, 4, 250);
+        assertNotNull(reopened.get("a"));
+        assertNull(reopened.get("b"));
+        assertNotNull(reopened.get("c"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for budgeted solving through {@link SearchControl}, run on the host JVM.
+ */
+public class SearchControlTest {
+
+    @Test
+    public void nodeBudget_stopsEveryEngine() {
+        for (SolverEngine engine : SolverEngine.values()) {
+            SudokuEngine solver = engine.create();
+            SearchControl control = new SearchControl(5, 0, 0, null);
+            solver.setSearchControl(control);
+
+            assertFalse(engine.name(), solver.solve(new int[9][9]));
+            assertEquals(engine.name(), SearchControl.Stop.NODE_BUDGET, control.getStop());
+        }
+    }
+
+    @Test
+    public void unsolvableGrid_finishesWithoutStop() {
+        // Conflict-free, but cell (0, 8) has no candidate left
+        int[][] grid = new int[9][9];
+        for (int col = 0; col < 8; col++) grid[0][col] = col + 1;
+        grid[1][8] = 9;
+
+        for (SolverEngine engine : SolverEngine.values()) {
+            SudokuEngine solver = engine.create();
+            SearchControl control = new SearchControl(1_000_000, 0, 0, null);
+            solver.setSearchControl(control);
+
+            assertFalse(engine.name(), solver.solve(SudokuSolverCore.copyGrid(grid)));
+            assertEquals(engine.name(), SearchControl.Stop.NONE, control.getStop());
+        }
+    }
+
+    @Test
+    public void cancel_stopsLongSearch() {
+        // Enumerating every solution of a nearly empty grid would run for ages
+        SearchControl control = new SearchControl(0, 0, 0, null);
+        control.cancel();
+
+        int[][] grid = new int[9][9];
+        grid[0][0] = 1;
+        grid[1][4] = 1;
+        grid[2][8] = 2;
+        grid[3][8] = 1;
+        BitmaskSolver solver = new BitmaskSolver();
+        solver.setSearchControl(control);
+        solver.countSolutions(grid, Integer.MAX_VALUE);
+
+        assertEquals(SearchControl.Stop.CANCELLED, control.getStop());
+        assertTrue(control.getNodes() <= 1024);
+    }
+
+    @Test
+    public void progressListener_receivesNodeCounts() {
+        long[] last = {0};
+        SearchControl control = new SearchControl(0, 0, 1, nodes -> last[0] = nodes);
+        assertTrue(SudokuSolverCore.solveSudoku(new int[9][9], control));
+        assertEquals(control.getNodes(), last[0]);
+        assertEquals(SearchControl.Stop.NONE, control.getStop());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.sudokuclassicwithcamera.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SudokuGrid} and its int[][] adapters, run on the host JVM.
+ */
+public class SudokuGridTest {
+
+    @Test
+    public void peers_areTheTwentyCellsSharingAUnit() {
+        for (int cell = 0; cell < SudokuGrid.CELLS; cell++) {
+            Set<Integer> expected = new HashSet<>();
+            for (int other = 0; other < SudokuGrid.CELLS; other++) {
+                boolean sameRow = other / 9 == cell / 9;
+                boolean sameCol = other % 9 == cell % 9;
+                boolean sameBox = (other / 27 == cell / 27) && ((other % 9) / 3 == (cell % 9) / 3);
+                if (other != cell && (sameRow || sameCol || sameBox)) expected.add(other);
+            }
+
+            Set<Integer> actual = new HashSet<>();
+            for (int peer : SudokuGrid.peersOf(cell)) actual.add(peer);
+            assertEquals(SudokuGrid.PEER_COUNT, expected.size());
+            assertEquals(expected, actual);
+            for (int i = 0; i < SudokuGrid.PEER_COUNT; i++) {
+                assertEquals(SudokuGrid.peersOf(cell)[i], SudokuGrid.peerAt(cell, i));
+            }
+        }
+    }
+
+    @Test
+    public void adapters_roundTrip() {
+        GeneratedPuzzle generated = SudokuSolverCore.generatePuzzle("medium", 42L);
+        SudokuGrid grid = generated.getPuzzleGrid();
+
+        assertArrayEquals(generated.getPuzzle(), grid.toArray());
+        assertEquals(grid, SudokuGrid.fromArray(grid.toArray()));
+        assertEquals(grid, SudokuGrid.fromFlat(grid.toFlat()));
+        assertEquals(grid, SudokuGrid.fromBytes(grid.toBytes()));
+        assertEquals(new SudokuGrid(), SudokuGrid.fromBytes(null));
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        SudokuGrid grid = new SudokuGrid();
+        grid.set(4, 4, 5);
+        SudokuGrid copy = grid.copy();
+        copy.set(4, 4, 0);
+
+        assertEquals(5, grid.get(4, 4));
+        assertNotEquals(grid, copy);
+    }
+
+    @Test
+    public void findConflict_matchesIntArrayApi() {
+        SudokuGrid grid = new SudokuGrid();
+        grid.set(0, 1, 7);
+        assertEquals(-1, grid.findConflict());
+
+        grid.set(2, 2, 7); // same box
+        assertEquals(SudokuGrid.indexOf(0, 1), grid.findConflict());
+        assertArrayEquals(new int[]{0, 1}, SudokuSolverCore.findConflict(grid.toArray()));
+    }
+
+    @Test
+    public void engines_solveFlatGridLikeIntArray() {
+        int[][] puzzle = SudokuSolverCore.generatePuzzle("hard", 7L).getPuzzle();
+        for (SolverEngine engine : SolverEngine.values()) {
+            SudokuEngine solver = engine.create();
+            int[][] expected = SudokuSolverCore.copyGrid(puzzle);
+            SudokuGrid grid = SudokuGrid.fromArray(puzzle);
+
+            assertTrue(engine.name(), solver.solve(expected));
+            assertTrue(engine.name(), solver.solve(grid));
+            assertArrayEquals(engine.name(), expected, grid.toArray());
+            assertEquals(engine.name(), 1, solver.countSolutions(SudokuGrid.fromArray(puzzle), 2));
+        }
+    }
+
+    @Test
+    public void outOfRangeValues_areRejectedByEngines() {
+        int[][] grid = new int[9][9];
+        grid[0][0] = 12;
+        for (SolverEngine engine : SolverEngine.values()) {
+            assertFalse(engine.name(), engine.create().solve(SudokuSolverCore.copyGrid(grid)));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+import org.junit.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link GridDetector} helpers, run on the host JVM.
+ */
+public class GridDetectorTest {
+
+    @Test
+    public void cropBounds_growsByMarginAndClips() {
+        // Slightly tilted 400 x 400 grid near the left edge of an 800 x 600 photo
+        float[] corners = {20, 100, 420, 110, 410, 510, 10, 500};
+        int[] box = GridDetector.cropBounds(corners, 800, 600, 0.1f);
+
+        assertArrayEquals(new int[]{0, 59, 461, 551}, box);
+    }
+
+    @Test
+    public void cropBounds_neverLeavesTheImage() {
+        float[] corners = {-5, -5, 105, -5, 105, 105, -5, 105};
+        assertArrayEquals(new int[]{0, 0, 100, 100}, GridDetector.cropBounds(corners, 100, 100, 0.5f));
+    }
+
+    @Test
+    public void cropBounds_scalesPreviewCornersToFullImage() {
+        // 2560 x 1920 photo with a 1080 px grid in the lower right, searched at 640 x 480
+        int width = 2560, height = 1920, left = 1200, top = 760, size = 1080;
+        GrayImage preview = render(width, height, left, top, size).downscale(width / 640);
+        float[] corners = GridDetector.detect(preview);
+        assertNotNull(corners);
+
+        int[] box = GridDetector.cropBounds(corners, preview.getWidth(), width, height, 0.05f);
+        assertTrue("left " + box[0], box[0] <= left && box[0] > left - 0.1 * size);
+        assertTrue("top " + box[1], box[1] <= top && box[1] > top - 0.1 * size);
+        assertTrue("right " + box[2], box[2] >= left + size && box[2] < left + 1.1 * size);
+        assertTrue("bottom " + box[3], box[3] >= top + size && box[3] <= height);
+    }
+
+    // --Empty grid of the given size on a light page
+    private static GrayImage render(int width, int height, int left, int top, int size) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(235, 235, 230));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        int cell = size / 9;
+        for (int i = 0; i <= 9; i++) {
+            g.setStroke(new BasicStroke(i % 3 == 0 ? 10 : 4));
+            g.drawLine(left + i * cell, top, left + i * cell, top + size);
+            g.drawLine(left, top + i * cell, left + size, top + i * cell);
+        }
+        g.dispose();
+        return GrayImage.fromArgb(image.getRGB(0, 0, width, height, null, 0, width), width, height);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.sudokuclassicwithcamera.core.vision;
+
+import org.junit.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the on-device scan pipeline on synthetic photos, run on the host JVM.
+ */
+public class SudokuScannerTest {
+
+    private static final String PUZZLE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+    // --Reports every filled cell as a 1, so only detection, warp and cell cropping are tested
+    private static final DigitClassifier ONES = (images, count, out, confidence) -> {
+        for (int i = 0; i < count; i++) {
+            out[i] = 1;
+            confidence[i] = 1f;
+        }
+    };
+
+    @Test
+    public void rotatedGrid_findsFilledCells() {
+        int[][] grid = new SudokuScanner(ONES).scan(render(PUZZLE, 0.12));
+        assertNotNull(grid);
+        for (int cell = 0; cell < 81; cell++) {
+            boolean filled = PUZZLE.charAt(cell) != '.';
+            assertEquals("cell " + cell, filled ? 1 : 0, grid[cell / 9][cell % 9]);
+        }
+    }
+
+    @Test
+    public void classifierSeesOnlyFilledCells() {
+        int[] calls = {0, 0};
+        DigitClassifier counting = (images, count, out, confidence) -> {
+            calls[0]++;
+            calls[1] = count;
+        };
+        new SudokuScanner(counting).scan(render(PUZZLE, 0));
+
+        assertEquals(1, calls[0]);
+        assertEquals(30, calls[1]);
+    }
+
+    @Test
+    public void uncertainCells_areCutIntoMosaic() {
+        // Every third filled cell comes back unsure
+        DigitClassifier unsure = (images, count, out, confidence) -> {
+            for (int i = 0; i < count; i++) {
+                out[i] = 1;
+                confidence[i] = i % 3 == 0 ? 0.4f : 0.99f;
+            }
+        };
+        ScanResult result = new SudokuScanner(unsure).recognize(render(PUZZLE, 0));
+        assertNotNull(result);
+
+        int[] cells = result.uncertainCells(0.9f);
+        assertEquals(10, cells.length);
+        for (int cell : cells) {
+            assertNotEquals('.', PUZZLE.charAt(cell));
+            assertEquals(0.4f, result.getConfidence(cell), 0f);
+        }
+
+        GrayImage mosaic = result.cellMosaic(cells, 64);
+        assertTrue(mosaic.getWidth() > 9 * 48 && mosaic.getWidth() < 9 * 64 + 80);
+        assertTrue(mosaic.getHeight() > 2 * 48 && mosaic.getHeight() < 2 * 64 + 30);
+        assertEquals(255, mosaic.get(mosaic.getWidth() - 2, mosaic.getHeight() - 2)); // unused slots stay white
+    }
+
+    @Test
+    public void blankImage_returnsNull() {
+        byte[] white = new byte[400 * 300];
+        java.util.Arrays.fill(white, (byte) 255);
+        assertNull(new SudokuScanner(ONES).scan(new GrayImage(400, 300, white)));
+    }
+
+    // --Printed puzzle on a 640x640 page, rotated by the given angle in radians
+    private static GrayImage render(String puzzle, double angle) {
+        int size = 640;
+        int cell = 48;
+        int origin = (size - 9 * cell) / 2;
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(235, 235, 230));
+        g.fillRect(0, 0, size, size);
+        g.rotate(angle, size / 2.0, size / 2.0);
+
+        g.setColor(Color.BLACK);
+        for (int i = 0; i <= 9; i++) {
+            g.setStroke(new BasicStroke(i % 3 == 0 ? 4 : 1.5f));
+            g.drawLine(origin + i * cell, origin, origin + i * cell, origin + 9 * cell);
+            g.drawLine(origin, origin + i * cell, origin + 9 * cell, origin + i * cell);
+        }
+
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 32));
+        for (int i = 0; i < 81; i++) {
+            char c = puzzle.charAt(i);
+            if (c == '.') continue;
+            int x = origin + (i % 9) * cell + 15;
+            int y = origin + (i / 9) * cell + 36;
+            g.drawString(String.valueOf(c), x, y);
+        }
+        g.dispose();
+
+        return GrayImage.fromArgb(image.getRGB(0, 0, size, size, null, 0, size), size, size);
+    }
+}
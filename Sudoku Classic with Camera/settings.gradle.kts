@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Sudoku Classic with Camera"
 include(":app")
+include(":core")
+include(":benchmark")
  
\ No newline at end of file